@@ -2,7 +2,17 @@
  * DSA ALGORITHMS - COMPLETE JAVA IMPLEMENTATIONS
  */
 
+import java.io.*;
+import java.lang.invoke.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.security.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+import java.util.stream.*;
 
 public class AlgorithmImplementations {
 
@@ -14,21 +24,21 @@ public class AlgorithmImplementations {
      */
     public static void mergeSort(int[] arr) {
         if (arr.length <= 1) return;
-        mergeSortHelper(arr, 0, arr.length - 1);
+        int[] temp = new int[arr.length]; // one scratch buffer for every merge
+        mergeSortHelper(arr, temp, 0, arr.length - 1);
     }
 
-    private static void mergeSortHelper(int[] arr, int left, int right) {
+    private static void mergeSortHelper(int[] arr, int[] temp, int left, int right) {
         if (left < right) {
             int mid = left + (right - left) / 2;
-            mergeSortHelper(arr, left, mid);
-            mergeSortHelper(arr, mid + 1, right);
-            merge(arr, left, mid, right);
+            mergeSortHelper(arr, temp, left, mid);
+            mergeSortHelper(arr, temp, mid + 1, right);
+            merge(arr, temp, left, mid, right);
         }
     }
 
-    private static void merge(int[] arr, int left, int mid, int right) {
-        int[] temp = new int[right - left + 1];
-        int i = left, j = mid + 1, k = 0;
+    private static void merge(int[] arr, int[] temp, int left, int mid, int right) {
+        int i = left, j = mid + 1, k = left;
         
         while (i <= mid && j <= right) {
             if (arr[i] <= arr[j]) {
@@ -41,39 +51,301 @@ public class AlgorithmImplementations {
         while (i <= mid) temp[k++] = arr[i++];
         while (j <= right) temp[k++] = arr[j++];
         
-        System.arraycopy(temp, 0, arr, left, temp.length);
+        System.arraycopy(temp, left, arr, left, right - left + 1);
     }
 
+    public static final int MERGE_INSERTION_CUTOFF = 32;
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 13;
+
     /**
-     * QUICK SORT
-     * Time: O(n log n) avg | O(n²) worst | Space: O(log n)
+     * PARALLEL MERGE SORT (FORK-JOIN)
+     * Stable. Allocates one auxiliary buffer up front and ping-pongs between
+     * the array and the buffer, so no level copies back. Runs shorter than
+     * MERGE_INSERTION_CUTOFF are insertion sorted; ranges shorter than
+     * parallelThreshold are sorted and merged on the calling thread.
+     * Time: O(n log n) work | O(log^3 n) span | Space: O(n)
      */
-    public static void quickSort(int[] arr) {
-        if (arr.length == 0) return;
-        quickSortHelper(arr, 0, arr.length - 1);
+    public static void parallelMergeSort(int[] arr) {
+        parallelMergeSort(arr, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    public static void parallelMergeSort(int[] arr, int parallelThreshold) {
+        if (arr.length <= 1) return;
+        int threshold = Math.max(parallelThreshold, MERGE_INSERTION_CUTOFF);
+        int[] buffer = arr.clone(); // src and dst start equal, see MergeSortTask
+        ForkJoinPool.commonPool().invoke(
+            new MergeSortTask(buffer, arr, 0, arr.length, threshold));
+    }
+
+    /**
+     * Sorts src[lo, hi) into dst[lo, hi). On entry both arrays hold the same
+     * values in that range, which lets each level swap roles with its children.
+     */
+    private static final class MergeSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final int[] src, dst;
+        private final int lo, hi, threshold;
+        
+        MergeSortTask(int[] src, int[] dst, int lo, int hi, int threshold) {
+            this.src = src;
+            this.dst = dst;
+            this.lo = lo;
+            this.hi = hi;
+            this.threshold = threshold;
+        }
+        
+        @Override
+        protected void compute() {
+            if (hi - lo <= threshold) {
+                sequentialMergeSort(src, dst, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new MergeSortTask(dst, src, lo, mid, threshold),
+                      new MergeSortTask(dst, src, mid, hi, threshold));
+            new MergeTask(src, lo, mid, mid, hi, dst, lo, threshold).compute();
+        }
+    }
+
+    private static void sequentialMergeSort(int[] src, int[] dst, int lo, int hi) {
+        if (hi - lo <= MERGE_INSERTION_CUTOFF) {
+            insertionSort(dst, lo, hi);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        sequentialMergeSort(dst, src, lo, mid);
+        sequentialMergeSort(dst, src, mid, hi);
+        mergeRuns(src, lo, mid, mid, hi, dst, lo);
     }
 
-    private static void quickSortHelper(int[] arr, int low, int high) {
-        if (low < high) {
-            int pi = partition(arr, low, high);
-            quickSortHelper(arr, low, pi - 1);
-            quickSortHelper(arr, pi + 1, high);
+    /**
+     * Merges src[lo1, hi1) and src[lo2, hi2) into dst starting at out.
+     * Large merges split the longer run at its midpoint and binary search the
+     * other run, keeping equal keys from the left run first (stability).
+     */
+    private static final class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final int[] src, dst;
+        private final int lo1, hi1, lo2, hi2, out, threshold;
+        
+        MergeTask(int[] src, int lo1, int hi1, int lo2, int hi2,
+                  int[] dst, int out, int threshold) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.out = out;
+            this.threshold = threshold;
+        }
+        
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1, n2 = hi2 - lo2;
+            if (n1 + n2 <= threshold) {
+                mergeRuns(src, lo1, hi1, lo2, hi2, dst, out);
+                return;
+            }
+            int split1, split2;
+            if (n1 >= n2) {
+                split1 = (lo1 + hi1) >>> 1;
+                split2 = lowerBound(src, lo2, hi2, src[split1]);
+            } else {
+                split2 = (lo2 + hi2) >>> 1;
+                split1 = upperBound(src, lo1, hi1, src[split2]);
+            }
+            int outMid = out + (split1 - lo1) + (split2 - lo2);
+            invokeAll(new MergeTask(src, lo1, split1, lo2, split2, dst, out, threshold),
+                      new MergeTask(src, split1, hi1, split2, hi2, dst, outMid, threshold));
         }
     }
 
-    private static int partition(int[] arr, int low, int high) {
-        int pivot = arr[high];
-        int i = low - 1;
+    private static void mergeRuns(int[] src, int lo1, int hi1, int lo2, int hi2,
+                                  int[] dst, int out) {
+        int i = lo1, j = lo2, k = out;
         
-        for (int j = low; j < high; j++) {
-            if (arr[j] < pivot) {
-                i++;
-                swap(arr, i, j);
+        while (i < hi1 && j < hi2) {
+            dst[k++] = src[j] < src[i] ? src[j++] : src[i++];
+        }
+        
+        System.arraycopy(src, i, dst, k, hi1 - i);
+        System.arraycopy(src, j, dst, k + (hi1 - i), hi2 - j);
+    }
+
+    /**
+     * Stable parallel merge sort for objects, for secondary-key sorts where
+     * equal elements must keep their input order. Same ping-pong scheme as the
+     * int[] version; merges run on the task that forked the two halves.
+     */
+    public static <T> void parallelMergeSort(T[] arr, Comparator<? super T> cmp) {
+        parallelMergeSort(arr, cmp, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    public static <T> void parallelMergeSort(T[] arr, Comparator<? super T> cmp,
+                                             int parallelThreshold) {
+        if (arr.length <= 1) return;
+        int threshold = Math.max(parallelThreshold, MERGE_INSERTION_CUTOFF);
+        T[] buffer = arr.clone();
+        ForkJoinPool.commonPool().invoke(
+            new ObjectMergeSortTask<>(buffer, arr, 0, arr.length, cmp, threshold));
+    }
+
+    private static final class ObjectMergeSortTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final T[] src, dst;
+        private final int lo, hi, threshold;
+        private final Comparator<? super T> cmp;
+        
+        ObjectMergeSortTask(T[] src, T[] dst, int lo, int hi,
+                            Comparator<? super T> cmp, int threshold) {
+            this.src = src;
+            this.dst = dst;
+            this.lo = lo;
+            this.hi = hi;
+            this.cmp = cmp;
+            this.threshold = threshold;
+        }
+        
+        @Override
+        protected void compute() {
+            if (hi - lo <= threshold) {
+                sequentialMergeSort(src, dst, lo, hi, cmp);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new ObjectMergeSortTask<>(dst, src, lo, mid, cmp, threshold),
+                      new ObjectMergeSortTask<>(dst, src, mid, hi, cmp, threshold));
+            mergeRuns(src, lo, mid, hi, dst, cmp);
+        }
+    }
+
+    private static <T> void sequentialMergeSort(T[] src, T[] dst, int lo, int hi,
+                                                Comparator<? super T> cmp) {
+        if (hi - lo <= MERGE_INSERTION_CUTOFF) {
+            for (int i = lo + 1; i < hi; i++) {
+                T key = dst[i];
+                int j = i - 1;
+                while (j >= lo && cmp.compare(dst[j], key) > 0) {
+                    dst[j + 1] = dst[j];
+                    j--;
+                }
+                dst[j + 1] = key;
             }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        sequentialMergeSort(dst, src, lo, mid, cmp);
+        sequentialMergeSort(dst, src, mid, hi, cmp);
+        mergeRuns(src, lo, mid, hi, dst, cmp);
+    }
+
+    private static <T> void mergeRuns(T[] src, int lo, int mid, int hi, T[] dst,
+                                      Comparator<? super T> cmp) {
+        int i = lo, j = mid, k = lo;
+        
+        while (i < mid && j < hi) {
+            dst[k++] = cmp.compare(src[j], src[i]) < 0 ? src[j++] : src[i++];
         }
         
-        swap(arr, i + 1, high);
-        return i + 1;
+        System.arraycopy(src, i, dst, k, mid - i);
+        System.arraycopy(src, j, dst, k + (mid - i), hi - j);
+    }
+
+    /** First index in [lo, hi) with arr[index] >= key. */
+    private static int lowerBound(int[] arr, int lo, int hi, int key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** First index in [lo, hi) with arr[index] > key. */
+    private static int upperBound(int[] arr, int lo, int hi, int key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static final int INTROSORT_INSERTION_THRESHOLD = 24;
+    private static final int NINTHER_THRESHOLD = 128;
+
+    /**
+     * QUICK SORT (INTROSORT)
+     * Ninther / median-of-three pivot, three-way partition so runs of equal
+     * keys are finished in one pass, and a loop on the larger side so only the
+     * smaller side recurses. Falls back to heap sort when the depth budget
+     * (2 * log2 n) runs out and to insertion sort for small partitions.
+     * Time: O(n log n) worst | Space: O(log n)
+     */
+    public static void quickSort(int[] arr) {
+        if (arr.length <= 1) return;
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(arr.length));
+        introSort(arr, 0, arr.length, depthLimit);
+    }
+
+    /** Sorts arr[lo, hi). */
+    private static void introSort(int[] arr, int lo, int hi, int depthLimit) {
+        while (hi - lo > INTROSORT_INSERTION_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(arr, lo, hi);
+                return;
+            }
+            
+            int pivot = arr[choosePivot(arr, lo, hi)];
+            
+            // Dutch national flag: [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi) > pivot
+            int lt = lo, i = lo, gt = hi - 1;
+            while (i <= gt) {
+                if (arr[i] < pivot) {
+                    swap(arr, lt++, i++);
+                } else if (arr[i] > pivot) {
+                    swap(arr, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            
+            if (lt - lo < hi - gt - 1) {
+                introSort(arr, lo, lt, depthLimit);
+                lo = gt + 1;
+            } else {
+                introSort(arr, gt + 1, hi, depthLimit);
+                hi = lt;
+            }
+        }
+        insertionSort(arr, lo, hi);
+    }
+
+    private static int choosePivot(int[] arr, int lo, int hi) {
+        int n = hi - lo;
+        int mid = lo + n / 2;
+        if (n < NINTHER_THRESHOLD) {
+            return medianOfThree(arr, lo, mid, hi - 1);
+        }
+        // Tukey's ninther: median of three medians-of-three
+        int step = n / 8;
+        int a = medianOfThree(arr, lo, lo + step, lo + 2 * step);
+        int b = medianOfThree(arr, mid - step, mid, mid + step);
+        int c = medianOfThree(arr, hi - 1 - 2 * step, hi - 1 - step, hi - 1);
+        return medianOfThree(arr, a, b, c);
+    }
+
+    private static int medianOfThree(int[] arr, int i, int j, int k) {
+        if (arr[i] < arr[j]) {
+            if (arr[j] < arr[k]) return j;
+            return arr[i] < arr[k] ? k : i;
+        }
+        if (arr[i] < arr[k]) return i;
+        return arr[j] < arr[k] ? k : j;
     }
 
     private static void swap(int[] arr, int i, int j) {
@@ -87,36 +359,42 @@ public class AlgorithmImplementations {
      * Time: O(n log n) | Space: O(1)
      */
     public static void heapSort(int[] arr) {
-        int n = arr.length;
+        heapSort(arr, 0, arr.length);
+    }
+
+    /** Heap sort of arr[lo, hi); the depth-limit fallback for introsort. */
+    private static void heapSort(int[] arr, int lo, int hi) {
+        int n = hi - lo;
         
         // Build max heap
         for (int i = n / 2 - 1; i >= 0; i--) {
-            heapify(arr, n, i);
+            heapify(arr, lo, n, i);
         }
         
         // Extract elements from heap
         for (int i = n - 1; i > 0; i--) {
-            swap(arr, 0, i);
-            heapify(arr, i, 0);
+            swap(arr, lo, lo + i);
+            heapify(arr, lo, i, 0);
         }
     }
 
-    private static void heapify(int[] arr, int n, int i) {
+    /** Sifts heap index i down within the n-element heap stored at arr[lo, lo + n). */
+    private static void heapify(int[] arr, int lo, int n, int i) {
         int largest = i;
         int left = 2 * i + 1;
         int right = 2 * i + 2;
         
-        if (left < n && arr[left] > arr[largest]) {
+        if (left < n && arr[lo + left] > arr[lo + largest]) {
             largest = left;
         }
         
-        if (right < n && arr[right] > arr[largest]) {
+        if (right < n && arr[lo + right] > arr[lo + largest]) {
             largest = right;
         }
         
         if (largest != i) {
-            swap(arr, i, largest);
-            heapify(arr, n, largest);
+            swap(arr, lo + i, lo + largest);
+            heapify(arr, lo, n, largest);
         }
     }
 
@@ -137,6 +415,20 @@ public class AlgorithmImplementations {
         }
     }
 
+    /** Insertion sort of arr[lo, hi); used as the small-run cutoff by other sorts. */
+    private static void insertionSort(int[] arr, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            int key = arr[i];
+            int j = i - 1;
+            
+            while (j >= lo && arr[j] > key) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = key;
+        }
+    }
+
     /**
      * COUNTING SORT
      * Time: O(n + k) | Space: O(k)
@@ -161,393 +453,4665 @@ public class AlgorithmImplementations {
         return result;
     }
 
+    private static final int PARALLEL_COUNTING_MIN_CHUNK = 1 << 15;
+    private static final int MAX_COUNTING_RANGE = 1 << 26;
+
     /**
-     * RADIX SORT
-     * Time: O(d * (n + k)) | Space: O(n + k)
+     * COUNTING SORT - RANGE DETECTING, STABLE, PARALLEL
+     * Finds [min, max] itself, so negative keys work and no max is passed in.
+     * Records are sorted by an int key extractor (called once per element,
+     * never boxed). Large inputs are split into chunks with their own
+     * histograms, and the chunks scatter in parallel after a prefix sum over
+     * (key, chunk), which keeps equal keys in input order.
+     * Time: O(n + k) | Space: O(n + chunks * k), k = max - min + 1
      */
-    public static void radixSort(int[] arr) {
-        if (arr.length == 0) return;
-        
-        int max = Arrays.stream(arr).max().orElse(0);
-        
-        for (int exp = 1; max / exp > 0; exp *= 10) {
-            countingSortByDigit(arr, exp);
+    public static int[] countingSort(int[] arr) {
+        int[] rank = countingRanks(arr);
+        int[] result = new int[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+            result[rank[i]] = arr[i];
         }
+        return result;
     }
 
-    private static void countingSortByDigit(int[] arr, int exp) {
-        int[] count = new int[10];
-        int[] output = new int[arr.length];
-        
-        for (int num : arr) {
-            count[(num / exp) % 10]++;
-        }
-        
-        for (int i = 1; i < 10; i++) {
-            count[i] += count[i - 1];
+    /** Stable in-place sort of items by keyExtractor. */
+    public static <T> void countingSort(T[] items, ToIntFunction<? super T> keyExtractor) {
+        int n = items.length;
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = keyExtractor.applyAsInt(items[i]);
         }
         
-        for (int i = arr.length - 1; i >= 0; i--) {
-            int digit = (arr[i] / exp) % 10;
-            output[count[digit] - 1] = arr[i];
-            count[digit]--;
+        int[] rank = countingRanks(keys);
+        T[] sorted = items.clone();
+        for (int i = 0; i < n; i++) {
+            sorted[rank[i]] = items[i];
         }
-        
-        System.arraycopy(output, 0, arr, 0, arr.length);
+        System.arraycopy(sorted, 0, items, 0, n);
     }
 
-    // ==================== SEARCHING ALGORITHMS ====================
-
     /**
-     * BINARY SEARCH
-     * Time: O(log n) | Space: O(1)
+     * Stable sort order for n records stored column-wise (parallel primitive
+     * arrays): order[k] is the index of the k-th record by keyOfIndex, so
+     * column[order[k]] reads any column in sorted order.
      */
-    public static int binarySearch(int[] arr, int target) {
-        int left = 0, right = arr.length - 1;
-        
-        while (left <= right) {
-            int mid = left + (right - left) / 2;
-            
-            if (arr[mid] == target) return mid;
-            if (arr[mid] < target) {
-                left = mid + 1;
-            } else {
-                right = mid - 1;
-            }
+    public static int[] countingSortOrder(int n, IntUnaryOperator keyOfIndex) {
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = keyOfIndex.applyAsInt(i);
         }
         
-        return -1;
+        int[] rank = countingRanks(keys);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[rank[i]] = i;
+        }
+        return order;
     }
 
-    /**
-     * BINARY SEARCH - FIRST OCCURRENCE
-     */
-    public static int binarySearchFirst(int[] arr, int target) {
-        int left = 0, right = arr.length - 1;
-        int result = -1;
+    /** rank[i] is the stable sorted position of keys[i]. */
+    private static int[] countingRanks(int[] keys) {
+        int n = keys.length;
+        int[] rank = new int[n];
+        if (n == 0) return rank;
         
-        while (left <= right) {
-            int mid = left + (right - left) / 2;
-            
-            if (arr[mid] == target) {
-                result = mid;
-                right = mid - 1;
-            } else if (arr[mid] < target) {
-                left = mid + 1;
-            } else {
-                right = mid - 1;
-            }
+        int[] range = keyRange(keys);
+        int min = range[0];
+        long width = (long) range[1] - min + 1;
+        if (width > MAX_COUNTING_RANGE) {
+            throw new IllegalArgumentException(
+                "Key range [" + min + ", " + range[1] + "] too wide for counting sort");
         }
         
-        return result;
-    }
-
-    /**
-     * BINARY SEARCH - LAST OCCURRENCE
-     */
-    public static int binarySearchLast(int[] arr, int target) {
-        int left = 0, right = arr.length - 1;
-        int result = -1;
+        int k = (int) width;
+        int chunks = chunkCount(n, Math.max(PARALLEL_COUNTING_MIN_CHUNK, k));
+        int[][] counts = new int[chunks][k];
         
-        while (left <= right) {
-            int mid = left + (right - left) / 2;
-            
-            if (arr[mid] == target) {
-                result = mid;
-                left = mid + 1;
-            } else if (arr[mid] < target) {
-                left = mid + 1;
-            } else {
-                right = mid - 1;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] count = counts[c];
+            int start = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1);
+            for (int i = start; i < end; i++) {
+                count[keys[i] - min]++;
             }
-        }
+        });
+        chunkOffsets(counts);
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] next = counts[c];
+            int start = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1);
+            for (int i = start; i < end; i++) {
+                rank[i] = next[keys[i] - min]++;
+            }
+        });
         
-        return result;
-    }
-
-    // ==================== GRAPH ALGORITHMS ====================
-
-    /**
-     * DFS - RECURSIVE
-     * Time: O(V + E) | Space: O(V)
-     */
-    public static List<Integer> dfs(Map<Integer, List<Integer>> graph, int start) {
-        List<Integer> result = new ArrayList<>();
-        Set<Integer> visited = new HashSet<>();
-        dfsHelper(graph, start, visited, result);
-        return result;
+        return rank;
     }
 
-    private static void dfsHelper(Map<Integer, List<Integer>> graph, int node, 
-                                  Set<Integer> visited, List<Integer> result) {
-        visited.add(node);
-        result.add(node);
+    /** {min, max} of a non-empty array, scanned in parallel chunks. */
+    private static int[] keyRange(int[] keys) {
+        int n = keys.length;
+        int chunks = chunkCount(n, PARALLEL_COUNTING_MIN_CHUNK);
+        int[] mins = new int[chunks], maxs = new int[chunks];
         
-        for (int neighbor : graph.getOrDefault(node, new ArrayList<>())) {
-            if (!visited.contains(neighbor)) {
-                dfsHelper(graph, neighbor, visited, result);
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int lo = Integer.MAX_VALUE, hi = Integer.MIN_VALUE;
+            int start = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1);
+            for (int i = start; i < end; i++) {
+                lo = Math.min(lo, keys[i]);
+                hi = Math.max(hi, keys[i]);
             }
+            mins[c] = lo;
+            maxs[c] = hi;
+        });
+        
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for (int c = 0; c < chunks; c++) {
+            min = Math.min(min, mins[c]);
+            max = Math.max(max, maxs[c]);
         }
+        return new int[]{min, max};
     }
 
+    private static final int RADIX = 256;
+    private static final int PARALLEL_RADIX_MIN_CHUNK = 1 << 16;
+
     /**
-     * DFS - ITERATIVE
+     * RADIX SORT (LSD, BASE 256)
+     * One byte per pass. Keys are XORed with the sign bit so negatives order
+     * before positives. All digit histograms come from a single pre-pass, a
+     * pass is skipped when every key shares that digit, and passes ping-pong
+     * between the array and one scratch buffer.
+     * Time: O(w * n), w = key bytes | Space: O(n)
      */
-    public static List<Integer> dfsIterative(Map<Integer, List<Integer>> graph, int start) {
-        List<Integer> result = new ArrayList<>();
-        Set<Integer> visited = new HashSet<>();
-        Stack<Integer> stack = new Stack<>();
+    public static void radixSort(int[] arr) {
+        int n = arr.length;
+        if (n <= 1) return;
         
-        stack.push(start);
+        int[][] counts = new int[4][RADIX];
+        for (int v : arr) {
+            int key = v ^ Integer.MIN_VALUE;
+            counts[0][key & 0xFF]++;
+            counts[1][(key >>> 8) & 0xFF]++;
+            counts[2][(key >>> 16) & 0xFF]++;
+            counts[3][key >>> 24]++;
+        }
         
-        while (!stack.isEmpty()) {
-            int node = stack.pop();
+        int[] src = arr, dst = null;
+        for (int pass = 0; pass < 4; pass++) {
+            int shift = pass * 8;
+            int[] count = counts[pass];
+            if (count[((src[0] ^ Integer.MIN_VALUE) >>> shift) & 0xFF] == n) continue;
+            if (dst == null) dst = new int[n];
             
-            if (!visited.contains(node)) {
-                visited.add(node);
-                result.add(node);
-                
-                for (int neighbor : graph.getOrDefault(node, new ArrayList<>())) {
-                    if (!visited.contains(neighbor)) {
-                        stack.push(neighbor);
-                    }
-                }
+            exclusivePrefixSum(count);
+            for (int v : src) {
+                dst[count[((v ^ Integer.MIN_VALUE) >>> shift) & 0xFF]++] = v;
             }
+            int[] t = src; src = dst; dst = t;
         }
         
-        return result;
+        if (src != arr) System.arraycopy(src, 0, arr, 0, n);
     }
 
-    /**
-     * BFS
-     * Time: O(V + E) | Space: O(V)
-     */
-    public static List<Integer> bfs(Map<Integer, List<Integer>> graph, int start) {
-        List<Integer> result = new ArrayList<>();
-        Set<Integer> visited = new HashSet<>();
-        Queue<Integer> queue = new LinkedList<>();
+    public static void radixSort(long[] arr) {
+        int n = arr.length;
+        if (n <= 1) return;
         
-        visited.add(start);
-        queue.add(start);
+        int[][] counts = new int[8][RADIX];
+        for (long v : arr) {
+            long key = v ^ Long.MIN_VALUE;
+            for (int pass = 0; pass < 8; pass++) {
+                counts[pass][(int) (key >>> (pass * 8)) & 0xFF]++;
+            }
+        }
         
-        while (!queue.isEmpty()) {
-            int node = queue.poll();
-            result.add(node);
+        long[] src = arr, dst = null;
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass * 8;
+            int[] count = counts[pass];
+            if (count[(int) ((src[0] ^ Long.MIN_VALUE) >>> shift) & 0xFF] == n) continue;
+            if (dst == null) dst = new long[n];
             
-            for (int neighbor : graph.getOrDefault(node, new ArrayList<>())) {
-                if (!visited.contains(neighbor)) {
-                    visited.add(neighbor);
-                    queue.add(neighbor);
-                }
+            exclusivePrefixSum(count);
+            for (long v : src) {
+                dst[count[(int) ((v ^ Long.MIN_VALUE) >>> shift) & 0xFF]++] = v;
             }
+            long[] t = src; src = dst; dst = t;
         }
         
-        return result;
+        if (src != arr) System.arraycopy(src, 0, arr, 0, n);
     }
 
     /**
-     * DIJKSTRA'S ALGORITHM
-     * Time: O((V + E) log V) | Space: O(V)
+     * PARALLEL RADIX SORT
+     * The array is cut into one chunk per worker. Each pass builds per-chunk
+     * histograms in parallel, turns them into per-chunk write offsets
+     * (digit-major, chunk-minor, which keeps the sort stable) and scatters
+     * every chunk in parallel. Inputs too small to split use radixSort.
      */
-    public static Map<Integer, Integer> dijkstra(
-            Map<Integer, List<int[]>> graph, int start) {
-        Map<Integer, Integer> distances = new HashMap<>();
-        PriorityQueue<int[]> pq = new PriorityQueue<>(
-            (a, b) -> Integer.compare(a[1], b[1])
-        );
+    public static void parallelRadixSort(int[] arr) {
+        int n = arr.length;
+        int chunks = chunkCount(n, PARALLEL_RADIX_MIN_CHUNK);
+        if (chunks <= 1) {
+            radixSort(arr);
+            return;
+        }
         
-        // Initialize
-        for (int node : graph.keySet()) {
-            distances.put(node, Integer.MAX_VALUE);
+        int[][] global = new int[4][RADIX];
+        int[][][] local = new int[chunks][4][RADIX];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[][] h = local[c];
+            int start = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1);
+            for (int i = start; i < end; i++) {
+                int key = arr[i] ^ Integer.MIN_VALUE;
+                h[0][key & 0xFF]++;
+                h[1][(key >>> 8) & 0xFF]++;
+                h[2][(key >>> 16) & 0xFF]++;
+                h[3][key >>> 24]++;
+            }
+        });
+        for (int[][] h : local) {
+            for (int pass = 0; pass < 4; pass++) {
+                for (int d = 0; d < RADIX; d++) global[pass][d] += h[pass][d];
+            }
         }
-        distances.put(start, 0);
-        pq.offer(new int[]{start, 0});
         
-        while (!pq.isEmpty()) {
-            int[] current = pq.poll();
-            int node = current[0];
-            int dist = current[1];
+        int[][] offsets = new int[chunks][RADIX];
+        int[] src = arr, dst = null;
+        for (int pass = 0; pass < 4; pass++) {
+            int shift = pass * 8;
+            if (global[pass][((src[0] ^ Integer.MIN_VALUE) >>> shift) & 0xFF] == n) continue;
+            if (dst == null) dst = new int[n];
             
-            if (dist > distances.get(node)) continue;
-            
-            for (int[] edge : graph.getOrDefault(node, new ArrayList<>())) {
-                int neighbor = edge[0];
-                int weight = edge[1];
-                int newDist = dist + weight;
-                
-                if (newDist < distances.get(neighbor)) {
-                    distances.put(neighbor, newDist);
-                    pq.offer(new int[]{neighbor, newDist});
+            int[] from = src, to = dst;
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] h = offsets[c];
+                Arrays.fill(h, 0);
+                int start = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1);
+                for (int i = start; i < end; i++) {
+                    h[((from[i] ^ Integer.MIN_VALUE) >>> shift) & 0xFF]++;
                 }
-            }
+            });
+            chunkOffsets(offsets);
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] next = offsets[c];
+                int start = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1);
+                for (int i = start; i < end; i++) {
+                    int v = from[i];
+                    to[next[((v ^ Integer.MIN_VALUE) >>> shift) & 0xFF]++] = v;
+                }
+            });
+            src = to; dst = from;
         }
         
-        return distances;
+        if (src != arr) System.arraycopy(src, 0, arr, 0, n);
     }
 
-    /**
-     * TOPOLOGICAL SORT - DFS
-     * Time: O(V + E) | Space: O(V)
-     */
-    public static List<Integer> topologicalSort(Map<Integer, List<Integer>> graph) {
-        Set<Integer> visited = new HashSet<>();
-        Stack<Integer> stack = new Stack<>();
+    public static void parallelRadixSort(long[] arr) {
+        int n = arr.length;
+        int chunks = chunkCount(n, PARALLEL_RADIX_MIN_CHUNK);
+        if (chunks <= 1) {
+            radixSort(arr);
+            return;
+        }
         
-        for (int node : graph.keySet()) {
-            if (!visited.contains(node)) {
-                topologicalDFS(graph, node, visited, stack);
+        int[][] global = new int[8][RADIX];
+        int[][][] local = new int[chunks][8][RADIX];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[][] h = local[c];
+            int start = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1);
+            for (int i = start; i < end; i++) {
+                long key = arr[i] ^ Long.MIN_VALUE;
+                for (int pass = 0; pass < 8; pass++) {
+                    h[pass][(int) (key >>> (pass * 8)) & 0xFF]++;
+                }
+            }
+        });
+        for (int[][] h : local) {
+            for (int pass = 0; pass < 8; pass++) {
+                for (int d = 0; d < RADIX; d++) global[pass][d] += h[pass][d];
             }
         }
         
-        List<Integer> result = new ArrayList<>();
-        while (!stack.isEmpty()) {
-            result.add(stack.pop());
+        int[][] offsets = new int[chunks][RADIX];
+        long[] src = arr, dst = null;
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass * 8;
+            if (global[pass][(int) ((src[0] ^ Long.MIN_VALUE) >>> shift) & 0xFF] == n) continue;
+            if (dst == null) dst = new long[n];
+            
+            long[] from = src, to = dst;
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] h = offsets[c];
+                Arrays.fill(h, 0);
+                int start = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1);
+                for (int i = start; i < end; i++) {
+                    h[(int) ((from[i] ^ Long.MIN_VALUE) >>> shift) & 0xFF]++;
+                }
+            });
+            chunkOffsets(offsets);
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] next = offsets[c];
+                int start = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1);
+                for (int i = start; i < end; i++) {
+                    long v = from[i];
+                    to[next[(int) ((v ^ Long.MIN_VALUE) >>> shift) & 0xFF]++] = v;
+                }
+            });
+            src = to; dst = from;
         }
         
-        return result;
+        if (src != arr) System.arraycopy(src, 0, arr, 0, n);
     }
 
-    private static void topologicalDFS(Map<Integer, List<Integer>> graph, int node,
-                                      Set<Integer> visited, Stack<Integer> stack) {
-        visited.add(node);
-        
-        for (int neighbor : graph.getOrDefault(node, new ArrayList<>())) {
-            if (!visited.contains(neighbor)) {
-                topologicalDFS(graph, neighbor, visited, stack);
-            }
+    /** Replaces counts with the starting index of each bucket. */
+    private static void exclusivePrefixSum(int[] count) {
+        int sum = 0;
+        for (int i = 0; i < count.length; i++) {
+            int c = count[i];
+            count[i] = sum;
+            sum += c;
         }
-        
-        stack.push(node);
     }
 
     /**
-     * TOPOLOGICAL SORT - KAHN'S ALGORITHM
+     * Turns per-chunk histograms into per-chunk write offsets: bucket d of
+     * chunk c starts after every smaller bucket and after bucket d of the
+     * earlier chunks.
      */
-    public static List<Integer> topologicalSortKahn(Map<Integer, List<Integer>> graph) {
-        Map<Integer, Integer> inDegree = new HashMap<>();
-        Set<Integer> allNodes = new HashSet<>();
-        
+    private static void chunkOffsets(int[][] histograms) {
+        int sum = 0;
+        for (int d = 0; d < histograms[0].length; d++) {
+            for (int[] h : histograms) {
+                int c = h[d];
+                h[d] = sum;
+                sum += c;
+            }
+        }
+    }
+
+    /** Number of parallel chunks for n elements, at least minChunk each. */
+    private static int chunkCount(int n, int minChunk) {
+        int workers = ForkJoinPool.getCommonPoolParallelism();
+        return Math.max(1, Math.min(workers * 4, n / minChunk));
+    }
+
+    private static int chunkStart(int n, int chunks, int c) {
+        return (int) ((long) n * c / chunks);
+    }
+
+    // ==================== EXTERNAL SORTING ====================
+
+    /**
+     * EXTERNAL MERGE SORT FOR FIXED-WIDTH KEYS
+     * Sorts a binary file of 4-byte (int) or 8-byte (long) keys that does not
+     * fit in the heap.
+     * 1. Run generation: the input is memory-mapped one run at a time, each
+     *    run is sorted in memory with radixSort / parallelRadixSort and
+     *    spilled to a temp file.
+     * 2. Merging: up to fanIn runs at a time are k-way merged through a loser
+     *    tree, repeating until one output file remains. Readers and the writer
+     *    use direct ByteBuffers.
+     * Time: O(n log n) CPU, O(n * passes) I/O, passes = 1 + log_fanIn(runs)
+     * Space: O(runSize) heap
+     *
+     * Usage:
+     *   new ExternalSorter(8).runSize(1 << 24).fanIn(128).parallelRuns(true)
+     *       .onProgress(System.out::println).sort(input, output);
+     */
+    public static class ExternalSorter {
+        private static final int READ_BUFFER_BYTES = 1 << 16;
+        private static final int WRITE_BUFFER_BYTES = 1 << 20;
+        
+        private final int keyBytes;
+        private int runSize = 1 << 22;
+        private int fanIn = 64;
+        private boolean parallelRuns = false;
+        private ByteOrder byteOrder = ByteOrder.BIG_ENDIAN;
+        private Path tempDir;
+        private Consumer<ExternalSortProgress> progressListener = p -> { };
+        
+        private long startNanos;
+        private long bytesTotal;
+        
+        /** keyBytes is 4 for int keys or 8 for long keys. */
+        public ExternalSorter(int keyBytes) {
+            if (keyBytes != 4 && keyBytes != 8) {
+                throw new IllegalArgumentException("keyBytes must be 4 or 8: " + keyBytes);
+            }
+            this.keyBytes = keyBytes;
+        }
+        
+        /** Keys sorted in memory per run; bounds the heap used. */
+        public ExternalSorter runSize(int keys) {
+            if (keys <= 0 || (long) keys * keyBytes > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("runSize out of range: " + keys);
+            }
+            this.runSize = keys;
+            return this;
+        }
+        
+        /** Maximum number of runs merged at once. */
+        public ExternalSorter fanIn(int runs) {
+            if (runs < 2) throw new IllegalArgumentException("fanIn must be >= 2: " + runs);
+            this.fanIn = runs;
+            return this;
+        }
+        
+        public ExternalSorter parallelRuns(boolean parallel) {
+            this.parallelRuns = parallel;
+            return this;
+        }
+        
+        public ExternalSorter byteOrder(ByteOrder order) {
+            this.byteOrder = order;
+            return this;
+        }
+        
+        /** Directory for run files; defaults to the output file's directory. */
+        public ExternalSorter tempDir(Path dir) {
+            this.tempDir = dir;
+            return this;
+        }
+        
+        public ExternalSorter onProgress(Consumer<ExternalSortProgress> listener) {
+            this.progressListener = listener;
+            return this;
+        }
+        
+        public ExternalSortProgress sort(Path input, Path output) throws IOException {
+            startNanos = System.nanoTime();
+            bytesTotal = Files.size(input);
+            if (bytesTotal % keyBytes != 0) {
+                throw new IllegalArgumentException(
+                    input + " is not a whole number of " + keyBytes + "-byte keys");
+            }
+            
+            Path dir = tempDir != null ? tempDir : output.toAbsolutePath().getParent();
+            List<Path> temps = new ArrayList<>(); // every run file, removed however sort ends
+            try {
+                List<Path> runs = createRuns(input, dir, temps);
+                int pass = 1;
+                while (runs.size() > fanIn) {
+                    List<Path> next = new ArrayList<>();
+                    long done = 0;
+                    for (int i = 0; i < runs.size(); i += fanIn) {
+                        List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                        Path merged = Files.createTempFile(dir, "merge", ".run");
+                        temps.add(merged);
+                        next.add(merged);
+                        done += mergeRuns(group, merged);
+                        deleteAll(group);
+                        report("merge pass " + pass, done);
+                    }
+                    runs = next;
+                    pass++;
+                }
+                mergeRuns(runs, output);
+            } finally {
+                deleteAll(temps);
+            }
+            
+            ExternalSortProgress result = new ExternalSortProgress(
+                "done", bytesTotal, bytesTotal, System.nanoTime() - startNanos);
+            progressListener.accept(result);
+            return result;
+        }
+        
+        /** Writes sorted runs to temp files; each file is added to temps as soon as it exists. */
+        private List<Path> createRuns(Path input, Path dir, List<Path> temps) throws IOException {
+            List<Path> runs = new ArrayList<>();
+            long runBytes = (long) runSize * keyBytes;
+            int maxCount = (int) Math.min(runSize, bytesTotal / keyBytes);
+            // 4-byte keys stay in an int[]: half the heap, and radixSort(int[]) has only 4 passes.
+            int[] intKeys = keyBytes == 4 ? new int[maxCount] : null;
+            long[] longKeys = keyBytes == 8 ? new long[maxCount] : null;
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(byteOrder);
+            
+            try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+                for (long pos = 0; pos < bytesTotal; pos += runBytes) {
+                    int count = (int) (Math.min(runBytes, bytesTotal - pos) / keyBytes);
+                    MappedByteBuffer segment = in.map(FileChannel.MapMode.READ_ONLY, pos,
+                                                      (long) count * keyBytes);
+                    segment.order(byteOrder);
+                    
+                    IntToLongFunction key;
+                    if (keyBytes == 4) {
+                        int[] run = count == maxCount ? intKeys : new int[count];
+                        segment.asIntBuffer().get(run);
+                        if (parallelRuns) {
+                            parallelRadixSort(run);
+                        } else {
+                            radixSort(run);
+                        }
+                        key = i -> run[i];
+                    } else {
+                        long[] run = count == maxCount ? longKeys : new long[count];
+                        segment.asLongBuffer().get(run);
+                        if (parallelRuns) {
+                            parallelRadixSort(run);
+                        } else {
+                            radixSort(run);
+                        }
+                        key = i -> run[i];
+                    }
+                    
+                    Path file = Files.createTempFile(dir, "run", ".run");
+                    temps.add(file);
+                    runs.add(file);
+                    try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                        buffer.clear();
+                        for (int i = 0; i < count; i++) {
+                            if (buffer.remaining() < keyBytes) drain(buffer, out);
+                            putKey(buffer, key.applyAsLong(i));
+                        }
+                        drain(buffer, out);
+                    }
+                    report("runs", pos + (long) count * keyBytes);
+                }
+            }
+            return runs;
+        }
+        
+        /** K-way merges runs into target and returns the bytes written. */
+        private long mergeRuns(List<Path> runs, Path target) throws IOException {
+            int k = runs.size();
+            FileChannel[] inputs = new FileChannel[k];
+            ByteBuffer[] buffers = new ByteBuffer[k];
+            long written = 0;
+            
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (int i = 0; i < k; i++) {
+                    inputs[i] = FileChannel.open(runs.get(i), StandardOpenOption.READ);
+                    buffers[i] = ByteBuffer.allocateDirect(READ_BUFFER_BYTES).order(byteOrder);
+                    buffers[i].flip();
+                }
+                
+                LoserTree tree = new LoserTree(k);
+                for (int i = 0; i < k; i++) {
+                    advance(tree, i, inputs[i], buffers[i]);
+                }
+                tree.build();
+                
+                ByteBuffer outBuffer =
+                        ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(byteOrder);
+                while (!tree.exhausted()) {
+                    int winner = tree.winner();
+                    if (outBuffer.remaining() < keyBytes) {
+                        written += drain(outBuffer, out);
+                    }
+                    putKey(outBuffer, tree.key(winner));
+                    advance(tree, winner, inputs[winner], buffers[winner]);
+                    tree.replay(winner);
+                }
+                written += drain(outBuffer, out);
+            } finally {
+                for (FileChannel in : inputs) {
+                    if (in != null) in.close();
+                }
+            }
+            return written;
+        }
+        
+        /** Loads the next key of run i into the tree, or marks the run finished. */
+        private void advance(LoserTree tree, int i, FileChannel in, ByteBuffer buffer)
+                throws IOException {
+            if (buffer.remaining() < keyBytes) {
+                buffer.compact();
+                while (buffer.hasRemaining() && in.read(buffer) > 0) {
+                    // refill until the buffer is full or the run ends
+                }
+                buffer.flip();
+                if (buffer.remaining() < keyBytes) {
+                    tree.finish(i);
+                    return;
+                }
+            }
+            tree.set(i, keyBytes == 8 ? buffer.getLong() : buffer.getInt());
+        }
+        
+        private void putKey(ByteBuffer buffer, long key) {
+            if (keyBytes == 8) {
+                buffer.putLong(key);
+            } else {
+                buffer.putInt((int) key);
+            }
+        }
+        
+        private static long drain(ByteBuffer buffer, FileChannel out) throws IOException {
+            buffer.flip();
+            long bytes = buffer.remaining();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+            return bytes;
+        }
+        
+        private static void deleteAll(List<Path> files) throws IOException {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        
+        private void report(String phase, long bytesDone) {
+            progressListener.accept(new ExternalSortProgress(
+                phase, bytesDone, bytesTotal, System.nanoTime() - startNanos));
+        }
+    }
+
+    /** Progress and throughput snapshot published by ExternalSorter. */
+    public static class ExternalSortProgress {
+        public final String phase;
+        public final long bytesDone;
+        public final long bytesTotal;
+        public final long elapsedNanos;
+        
+        ExternalSortProgress(String phase, long bytesDone, long bytesTotal, long elapsedNanos) {
+            this.phase = phase;
+            this.bytesDone = bytesDone;
+            this.bytesTotal = bytesTotal;
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        public double megabytesPerSecond() {
+            return elapsedNanos == 0 ? 0 : bytesDone / 1e6 / (elapsedNanos / 1e9);
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%s: %d/%d bytes, %.1f MB/s", phase, bytesDone, bytesTotal,
+                                 megabytesPerSecond());
+        }
+    }
+
+    /**
+     * LOSER TREE FOR K-WAY MERGE
+     * Internal node t stores the loser of the match played there; tree[0] is
+     * the overall winner. Replacing the winner's key replays only its path to
+     * the root: log2(k) comparisons per output key. Ties go to the lower run
+     * index, which makes the merge stable.
+     */
+    static class LoserTree {
+        private final int k;
+        private final int[] tree;
+        private final long[] keys;
+        private final boolean[] finished;
+        private int remaining;
+        
+        LoserTree(int k) {
+            this.k = k;
+            this.tree = new int[Math.max(k, 1)];
+            this.keys = new long[k];
+            this.finished = new boolean[k];
+            this.remaining = k;
+        }
+        
+        void set(int run, long key) {
+            keys[run] = key;
+        }
+        
+        void finish(int run) {
+            if (!finished[run]) {
+                finished[run] = true;
+                remaining--;
+            }
+        }
+        
+        long key(int run) {
+            return keys[run];
+        }
+        
+        int winner() {
+            return tree[0];
+        }
+        
+        boolean exhausted() {
+            return remaining == 0;
+        }
+        
+        void build() {
+            if (k == 0) return;
+            int[] winners = new int[2 * k];
+            for (int i = 0; i < k; i++) {
+                winners[k + i] = i;
+            }
+            for (int t = k - 1; t >= 1; t--) {
+                int a = winners[2 * t], b = winners[2 * t + 1];
+                if (beats(a, b)) {
+                    winners[t] = a;
+                    tree[t] = b;
+                } else {
+                    winners[t] = b;
+                    tree[t] = a;
+                }
+            }
+            tree[0] = k == 1 ? 0 : winners[1];
+        }
+        
+        void replay(int run) {
+            int winner = run;
+            for (int t = (k + run) >>> 1; t >= 1; t >>>= 1) {
+                if (beats(tree[t], winner)) {
+                    int loser = winner;
+                    winner = tree[t];
+                    tree[t] = loser;
+                }
+            }
+            tree[0] = winner;
+        }
+        
+        private boolean beats(int a, int b) {
+            if (finished[a]) return false;
+            if (finished[b]) return true;
+            return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+        }
+    }
+
+    // ==================== SEARCHING ALGORITHMS ====================
+
+    /**
+     * BINARY SEARCH
+     * Time: O(log n) | Space: O(1)
+     */
+    public static int binarySearch(int[] arr, int target) {
+        int left = 0, right = arr.length - 1;
+        
+        while (left <= right) {
+            int mid = left + (right - left) / 2;
+            
+            if (arr[mid] == target) return mid;
+            if (arr[mid] < target) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        
+        return -1;
+    }
+
+    /**
+     * BINARY SEARCH - FIRST OCCURRENCE
+     */
+    public static int binarySearchFirst(int[] arr, int target) {
+        int left = 0, right = arr.length - 1;
+        int result = -1;
+        
+        while (left <= right) {
+            int mid = left + (right - left) / 2;
+            
+            if (arr[mid] == target) {
+                result = mid;
+                right = mid - 1;
+            } else if (arr[mid] < target) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        
+        return result;
+    }
+
+    /**
+     * BINARY SEARCH - LAST OCCURRENCE
+     */
+    public static int binarySearchLast(int[] arr, int target) {
+        int left = 0, right = arr.length - 1;
+        int result = -1;
+        
+        while (left <= right) {
+            int mid = left + (right - left) / 2;
+            
+            if (arr[mid] == target) {
+                result = mid;
+                left = mid + 1;
+            } else if (arr[mid] < target) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        
+        return result;
+    }
+
+    // ==================== GRAPH ALGORITHMS ====================
+
+    /**
+     * DFS - RECURSIVE ORDER, EXPLICIT STACK
+     * Visits nodes in exactly the order of the recursive version, but each
+     * "call" is a frame on primitive IntList stacks, so chain depth is
+     * limited by the heap, not the thread stack. Entering a node copies its
+     * neighbours once onto a shared int stack (see pushFrame), and the
+     * frame keeps only the [next, end) range into it, so any List,
+     * LinkedList included, is read in a single pass.
+     * Time: O(V + E) | Space: O(V + E)
+     */
+    public static List<Integer> dfs(Map<Integer, List<Integer>> graph, int start) {
+        List<Integer> result = new ArrayList<>();
+        Set<Integer> visited = new HashSet<>();
+        IntList neighbors = new IntList();
+        IntList next = new IntList(), end = new IntList();
+        
+        visited.add(start);
+        result.add(start);
+        pushFrame(graph, start, neighbors, next, end);
+        
+        while (!next.isEmpty()) {
+            int top = next.size - 1;
+            if (next.data[top] == end.data[top]) { // "return" from this node
+                popFrame(neighbors, next, end);
+                continue;
+            }
+            
+            int neighbor = neighbors.data[next.data[top]++];
+            if (visited.add(neighbor)) { // "call" on the neighbour
+                result.add(neighbor);
+                pushFrame(graph, neighbor, neighbors, next, end);
+            }
+        }
+        
+        return result;
+    }
+
+    /**
+     * Opens a DFS frame for node: appends its neighbours to neighbors and
+     * records their [next, end) range. Child frames append after the
+     * parent's range, so the stack never holds more than the neighbours of
+     * the nodes on the current path.
+     */
+    private static void pushFrame(Map<Integer, List<Integer>> graph, int node, IntList neighbors,
+                                  IntList next, IntList end) {
+        next.add(neighbors.size);
+        for (int v : graph.getOrDefault(node, Collections.emptyList())) neighbors.add(v);
+        end.add(neighbors.size);
+    }
+
+    /** Closes the top DFS frame and drops its neighbours. */
+    private static void popFrame(IntList neighbors, IntList next, IntList end) {
+        next.pop();
+        end.pop();
+        neighbors.size = end.isEmpty() ? 0 : end.data[end.size - 1];
+    }
+
+    /**
+     * DFS - ITERATIVE
+     */
+    public static List<Integer> dfsIterative(Map<Integer, List<Integer>> graph, int start) {
+        List<Integer> result = new ArrayList<>();
+        Set<Integer> visited = new HashSet<>();
+        IntList stack = new IntList();
+        
+        stack.add(start);
+        
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            
+            if (visited.add(node)) {
+                result.add(node);
+                
+                for (int neighbor : graph.getOrDefault(node, Collections.emptyList())) {
+                    if (!visited.contains(neighbor)) {
+                        stack.add(neighbor);
+                    }
+                }
+            }
+        }
+        
+        return result;
+    }
+
+    /**
+     * BFS
+     * Time: O(V + E) | Space: O(V)
+     */
+    public static List<Integer> bfs(Map<Integer, List<Integer>> graph, int start) {
+        List<Integer> result = new ArrayList<>();
+        Set<Integer> visited = new HashSet<>();
+        Queue<Integer> queue = new LinkedList<>();
+        
+        visited.add(start);
+        queue.add(start);
+        
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            result.add(node);
+            
+            for (int neighbor : graph.getOrDefault(node, Collections.emptyList())) {
+                if (!visited.contains(neighbor)) {
+                    visited.add(neighbor);
+                    queue.add(neighbor);
+                }
+            }
+        }
+        
+        return result;
+    }
+
+    /**
+     * DIJKSTRA'S ALGORITHM
+     * Nodes are mapped to dense indices once, then the search runs on a
+     * primitive indexed 4-ary heap with decrease-key: one heap entry per node,
+     * no per-relaxation allocation, and long distances (no int overflow).
+     * Unreachable nodes map to Integer.MAX_VALUE; longer distances saturate.
+     * Time: O((V + E) log V) | Space: O(V + E)
+     */
+    public static Map<Integer, Integer> dijkstra(
+            Map<Integer, List<int[]>> graph, int start) {
+        Map<Integer, Integer> index = new HashMap<>();
+        List<Integer> nodes = new ArrayList<>();
+        int edgeCount = 0;
+        
+        for (Map.Entry<Integer, List<int[]>> entry : graph.entrySet()) {
+            denseId(entry.getKey(), index, nodes);
+            for (int[] edge : entry.getValue()) {
+                denseId(edge[0], index, nodes);
+                edgeCount++;
+            }
+        }
+        denseId(start, index, nodes);
+        
+        int n = nodes.size();
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[edgeCount];
+        int[] weights = new int[edgeCount];
+        for (int u = 0; u < n; u++) {
+            int e = offsets[u];
+            for (int[] edge : graph.getOrDefault(nodes.get(u), Collections.emptyList())) {
+                targets[e] = index.get(edge[0]);
+                weights[e] = edge[1];
+                e++;
+            }
+            offsets[u + 1] = e;
+        }
+        
+        long[] dist = new long[n];
+        dijkstraDense(offsets, targets, weights, index.get(start), dist, null,
+                      new IndexedMinHeap(n));
+        
+        Map<Integer, Integer> distances = new HashMap<>();
+        for (int u = 0; u < n; u++) {
+            distances.put(nodes.get(u), (int) Math.min(dist[u], Integer.MAX_VALUE));
+        }
+        
+        return distances;
+    }
+
+    private static int denseId(int node, Map<Integer, Integer> index, List<Integer> nodes) {
+        Integer id = index.get(node);
+        if (id == null) {
+            id = nodes.size();
+            index.put(node, id);
+            nodes.add(node);
+        }
+        return id;
+    }
+
+    /**
+     * Dijkstra over adjacency arrays: the edges of u are targets/weights at
+     * [offsets[u], offsets[u + 1]). Fills dist (Long.MAX_VALUE = unreachable)
+     * and, if pred is not null, the predecessor of each node on its shortest
+     * path (-1 for the source and unreachable nodes). Reuses the caller's
+     * heap, so repeated runs allocate nothing.
+     */
+    private static void dijkstraDense(int[] offsets, int[] targets, int[] weights,
+                                      int source, long[] dist, int[] pred, IndexedMinHeap heap) {
+        Arrays.fill(dist, Long.MAX_VALUE);
+        if (pred != null) Arrays.fill(pred, -1);
+        heap.clear();
+        dist[source] = 0;
+        heap.insert(source, 0);
+        
+        while (!heap.isEmpty()) {
+            long d = heap.peekPriority();
+            int u = heap.poll();
+            
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                long newDist = d + weights[e];
+                
+                if (newDist < dist[v]) {
+                    dist[v] = newDist;
+                    if (pred != null) pred[v] = u;
+                    heap.insertOrDecrease(v, newDist);
+                }
+            }
+        }
+    }
+
+    /**
+     * TOPOLOGICAL SORT - DFS
+     * Reverse postorder of an explicit-stack DFS (same frames as dfs): a
+     * node is emitted when its frame's neighbour range runs out, exactly
+     * when the recursive version would return from it.
+     * Time: O(V + E) | Space: O(V + E)
+     */
+    public static List<Integer> topologicalSort(Map<Integer, List<Integer>> graph) {
+        Set<Integer> visited = new HashSet<>();
+        IntList postorder = new IntList();
+        IntList nodes = new IntList(), neighbors = new IntList();
+        IntList next = new IntList(), end = new IntList();
+        
+        for (int root : graph.keySet()) {
+            if (!visited.add(root)) continue;
+            nodes.add(root);
+            pushFrame(graph, root, neighbors, next, end);
+            
+            while (!nodes.isEmpty()) {
+                int top = next.size - 1;
+                if (next.data[top] == end.data[top]) {
+                    postorder.add(nodes.pop());
+                    popFrame(neighbors, next, end);
+                    continue;
+                }
+                
+                int neighbor = neighbors.data[next.data[top]++];
+                if (visited.add(neighbor)) {
+                    nodes.add(neighbor);
+                    pushFrame(graph, neighbor, neighbors, next, end);
+                }
+            }
+        }
+        
+        List<Integer> result = new ArrayList<>(postorder.size);
+        for (int i = postorder.size - 1; i >= 0; i--) {
+            result.add(postorder.data[i]);
+        }
+        
+        return result;
+    }
+
+    /**
+     * TOPOLOGICAL SORT - KAHN'S ALGORITHM
+     */
+    public static List<Integer> topologicalSortKahn(Map<Integer, List<Integer>> graph) {
+        Map<Integer, Integer> inDegree = new HashMap<>();
+        Set<Integer> allNodes = new HashSet<>();
+        
         for (int node : graph.keySet()) {
             inDegree.put(node, 0);
             allNodes.add(node);
         }
         
-        for (int node : graph.keySet()) {
-            for (int neighbor : graph.get(node)) {
-                inDegree.put(neighbor, inDegree.getOrDefault(neighbor, 0) + 1);
-                allNodes.add(neighbor);
-            }
+        for (int node : graph.keySet()) {
+            for (int neighbor : graph.get(node)) {
+                inDegree.put(neighbor, inDegree.getOrDefault(neighbor, 0) + 1);
+                allNodes.add(neighbor);
+            }
+        }
+        
+        Queue<Integer> queue = new LinkedList<>();
+        for (int node : allNodes) {
+            if (inDegree.getOrDefault(node, 0) == 0) {
+                queue.add(node);
+            }
+        }
+        
+        List<Integer> result = new ArrayList<>();
+        
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            result.add(node);
+            
+            for (int neighbor : graph.getOrDefault(node, Collections.emptyList())) {
+                inDegree.put(neighbor, inDegree.get(neighbor) - 1);
+                if (inDegree.get(neighbor) == 0) {
+                    queue.add(neighbor);
+                }
+            }
+        }
+        
+        return result.size() == allNodes.size() ? result : new ArrayList<>();
+    }
+
+    /**
+     * DYNAMIC TOPOLOGICAL ORDER (PEARCE-KELLY)
+     * Keeps a topological order of a DAG under edge insertions and deletions.
+     * Inserting x -> y when x already precedes y costs O(1). Otherwise only
+     * the affected region between them is searched: forward from y through
+     * nodes ordered before x, and backward from x through nodes ordered after
+     * y. If the forward search reaches x, the edge would close a cycle, so it
+     * is rejected and the cycle is kept for lastCycle(). Otherwise the two
+     * sets swap into the same pool of positions, backward set first.
+     * Deleting an edge never invalidates the order.
+     * Time: O(|region| log |region| + edges of region) per insertion | Space: O(V + E)
+     */
+    public static final class DynamicTopologicalOrder {
+        private IntList[] out = new IntList[0], in = new IntList[0];
+        private int[] ord = new int[0], nodeAt = new int[0];
+        private int[] mark = new int[0], parent = new int[0];
+        private long[] sortBuffer = new long[16];
+        private int nodeCount;
+        private int epoch;
+        private int[] lastCycle = new int[0];
+        private final IntList stack = new IntList();
+        private final IntList forward = new IntList(), backward = new IntList();
+        
+        public DynamicTopologicalOrder(int nodeCount) {
+            for (int i = 0; i < nodeCount; i++) addNode();
+        }
+        
+        /** Adds an isolated node at the end of the order and returns its ID. */
+        public int addNode() {
+            if (nodeCount == ord.length) {
+                int capacity = Math.max(16, nodeCount * 2);
+                out = Arrays.copyOf(out, capacity);
+                in = Arrays.copyOf(in, capacity);
+                ord = Arrays.copyOf(ord, capacity);
+                nodeAt = Arrays.copyOf(nodeAt, capacity);
+                mark = Arrays.copyOf(mark, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+            }
+            int node = nodeCount++;
+            out[node] = new IntList(4);
+            in[node] = new IntList(4);
+            ord[node] = node;
+            nodeAt[node] = node;
+            return node;
+        }
+        
+        public int nodeCount() {
+            return nodeCount;
+        }
+        
+        /** Position of node in the current order. */
+        public int position(int node) {
+            return ord[node];
+        }
+        
+        public int[] order() {
+            return Arrays.copyOf(nodeAt, nodeCount);
+        }
+        
+        /**
+         * Cycle x, y, ..., w (with edges between neighbours and w -> x) of
+         * the last rejected edge.
+         */
+        public int[] lastCycle() {
+            return lastCycle.clone();
+        }
+        
+        /**
+         * Adds from -> to and repairs the order. Returns false, leaving the
+         * graph unchanged, if the edge would create a cycle.
+         */
+        public boolean addEdge(int from, int to) {
+            if (from == to) {
+                lastCycle = new int[]{from};
+                return false;
+            }
+            
+            int lower = ord[to], upper = ord[from];
+            if (lower < upper) {
+                if (reachesForward(to, from, upper)) {
+                    lastCycle = buildCycle(from, to);
+                    return false;
+                }
+                collectBackward(from, lower);
+                reorder();
+            }
+            
+            out[from].add(to);
+            in[to].add(from);
+            return true;
+        }
+        
+        /** Removes one from -> to edge; returns false if there was none. */
+        public boolean removeEdge(int from, int to) {
+            return remove(out[from], to) && remove(in[to], from);
+        }
+        
+        private static boolean remove(IntList list, int value) {
+            for (int i = 0; i < list.size; i++) {
+                if (list.data[i] == value) {
+                    list.data[i] = list.data[--list.size];
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        /** Forward DFS from start over nodes ordered before upper; true if target is reached. */
+        private boolean reachesForward(int start, int target, int upper) {
+            epoch++;
+            forward.clear();
+            stack.clear();
+            mark[start] = epoch;
+            parent[start] = -1;
+            stack.add(start);
+            
+            while (!stack.isEmpty()) {
+                int w = stack.pop();
+                forward.add(w);
+                IntList edges = out[w];
+                for (int i = 0; i < edges.size; i++) {
+                    int z = edges.data[i];
+                    if (z == target) {
+                        parent[target] = w;
+                        return true;
+                    }
+                    if (mark[z] != epoch && ord[z] < upper) {
+                        mark[z] = epoch;
+                        parent[z] = w;
+                        stack.add(z);
+                    }
+                }
+            }
+            return false;
+        }
+        
+        /** Backward DFS from start over nodes ordered after lower. */
+        private void collectBackward(int start, int lower) {
+            epoch++;
+            backward.clear();
+            stack.clear();
+            mark[start] = epoch;
+            stack.add(start);
+            
+            while (!stack.isEmpty()) {
+                int w = stack.pop();
+                backward.add(w);
+                IntList edges = in[w];
+                for (int i = 0; i < edges.size; i++) {
+                    int z = edges.data[i];
+                    if (mark[z] != epoch && ord[z] > lower) {
+                        mark[z] = epoch;
+                        stack.add(z);
+                    }
+                }
+            }
+        }
+        
+        /** Gives the backward set, then the forward set, the sorted union of their positions. */
+        private void reorder() {
+            int b = backward.size, f = forward.size, k = b + f;
+            if (sortBuffer.length < 2 * k) {
+                sortBuffer = new long[Math.max(2 * k, sortBuffer.length * 2)];
+            }
+            
+            sortByOrder(backward, 0);
+            sortByOrder(forward, b);
+            for (int i = 0; i < k; i++) {
+                sortBuffer[k + i] = (int) (sortBuffer[i] >>> 32);
+            }
+            Arrays.sort(sortBuffer, k, 2 * k);
+            
+            for (int i = 0; i < k; i++) {
+                int node = (int) sortBuffer[i];
+                int position = (int) sortBuffer[k + i];
+                ord[node] = position;
+                nodeAt[position] = node;
+            }
+        }
+        
+        /** Writes nodes into sortBuffer[offset ..] as (ord << 32 | node), sorted by ord. */
+        private void sortByOrder(IntList nodes, int offset) {
+            for (int i = 0; i < nodes.size; i++) {
+                int node = nodes.data[i];
+                sortBuffer[offset + i] = (long) ord[node] << 32 | node;
+            }
+            Arrays.sort(sortBuffer, offset, offset + nodes.size);
+        }
+        
+        private int[] buildCycle(int from, int to) {
+            IntList path = new IntList();
+            for (int v = parent[from]; v != -1; v = parent[v]) path.add(v);
+            int[] cycle = new int[path.size + 1];
+            cycle[0] = from;
+            for (int i = 0; i < path.size; i++) {
+                cycle[i + 1] = path.data[path.size - 1 - i];
+            }
+            return cycle;
+        }
+    }
+
+    /**
+     * COMPRESSED SPARSE ROW (CSR) GRAPH
+     * Immutable adjacency in three primitive arrays: the out-edges of node u
+     * are targets[offsets[u] .. offsets[u + 1]) with optional parallel
+     * weights. Nodes are the IDs 0 .. nodeCount - 1; IDs that never appear in
+     * the source data are isolated nodes. Traversals over it use int[] /
+     * long[] / bitset state, so nothing is boxed.
+     * Space: O(V + E)
+     */
+    public static final class CsrGraph {
+        final int[] offsets;
+        final int[] targets;
+        final int[] weights; // null for unweighted graphs
+        
+        CsrGraph(int[] offsets, int[] targets, int[] weights) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+        }
+        
+        /**
+         * Builds from an edge list (sources[i] -> targets[i], weight
+         * weights[i]); weights may be null. Each node keeps its edges in
+         * input order.
+         */
+        public static CsrGraph fromEdges(int nodeCount, int[] sources, int[] targets,
+                                         int[] weights) {
+            int m = sources.length;
+            if (targets.length != m || (weights != null && weights.length != m)) {
+                throw new IllegalArgumentException("Edge arrays differ in length");
+            }
+            
+            int[] offsets = new int[nodeCount + 1];
+            for (int i = 0; i < m; i++) {
+                checkNode(sources[i], nodeCount);
+                checkNode(targets[i], nodeCount);
+                offsets[sources[i] + 1]++;
+            }
+            for (int u = 0; u < nodeCount; u++) {
+                offsets[u + 1] += offsets[u];
+            }
+            
+            int[] next = Arrays.copyOf(offsets, nodeCount);
+            int[] csrTargets = new int[m];
+            int[] csrWeights = weights == null ? null : new int[m];
+            for (int i = 0; i < m; i++) {
+                int e = next[sources[i]]++;
+                csrTargets[e] = targets[i];
+                if (weights != null) csrWeights[e] = weights[i];
+            }
+            
+            return new CsrGraph(offsets, csrTargets, csrWeights);
+        }
+        
+        /** Builds from the Map form used by dfs / bfs / topologicalSort. */
+        public static CsrGraph fromAdjacency(Map<Integer, List<Integer>> graph) {
+            int nodeCount = 0, m = 0;
+            for (Map.Entry<Integer, List<Integer>> entry : graph.entrySet()) {
+                nodeCount = Math.max(nodeCount, entry.getKey() + 1);
+                for (int v : entry.getValue()) {
+                    nodeCount = Math.max(nodeCount, v + 1);
+                }
+                m += entry.getValue().size();
+            }
+            
+            int[] sources = new int[m], targets = new int[m];
+            int i = 0;
+            for (Map.Entry<Integer, List<Integer>> entry : graph.entrySet()) {
+                for (int v : entry.getValue()) {
+                    sources[i] = entry.getKey();
+                    targets[i++] = v;
+                }
+            }
+            return fromEdges(nodeCount, sources, targets, null);
+        }
+        
+        /** Builds from the Map form used by dijkstra (edge = {neighbor, weight}). */
+        public static CsrGraph fromWeightedAdjacency(Map<Integer, List<int[]>> graph) {
+            int nodeCount = 0, m = 0;
+            for (Map.Entry<Integer, List<int[]>> entry : graph.entrySet()) {
+                nodeCount = Math.max(nodeCount, entry.getKey() + 1);
+                for (int[] edge : entry.getValue()) {
+                    nodeCount = Math.max(nodeCount, edge[0] + 1);
+                }
+                m += entry.getValue().size();
+            }
+            
+            int[] sources = new int[m], targets = new int[m], weights = new int[m];
+            int i = 0;
+            for (Map.Entry<Integer, List<int[]>> entry : graph.entrySet()) {
+                for (int[] edge : entry.getValue()) {
+                    sources[i] = entry.getKey();
+                    targets[i] = edge[0];
+                    weights[i++] = edge[1];
+                }
+            }
+            return fromEdges(nodeCount, sources, targets, weights);
+        }
+        
+        private static void checkNode(int node, int nodeCount) {
+            if (node < 0 || node >= nodeCount) {
+                throw new IllegalArgumentException(
+                    "Node " + node + " outside [0, " + nodeCount + ")");
+            }
+        }
+        
+        public int nodeCount() {
+            return offsets.length - 1;
+        }
+        
+        public int edgeCount() {
+            return targets.length;
+        }
+        
+        public boolean isWeighted() {
+            return weights != null;
+        }
+        
+        public int degree(int u) {
+            return offsets[u + 1] - offsets[u];
+        }
+        
+        /** First edge index of u; its edges are [edgeStart(u), edgeEnd(u)). */
+        public int edgeStart(int u) {
+            return offsets[u];
+        }
+        
+        public int edgeEnd(int u) {
+            return offsets[u + 1];
+        }
+        
+        public int target(int edge) {
+            return targets[edge];
+        }
+        
+        public int weight(int edge) {
+            return weights == null ? 1 : weights[edge];
+        }
+        
+        /** Transposed graph (every edge reversed, weights kept). */
+        public CsrGraph reverse() {
+            int n = nodeCount();
+            int[] sources = new int[edgeCount()];
+            for (int u = 0; u < n; u++) {
+                Arrays.fill(sources, offsets[u], offsets[u + 1], u);
+            }
+            return fromEdges(n, targets, sources, weights);
+        }
+    }
+
+    /**
+     * DFS ON CSR - RECURSIVE PREORDER, EXPLICIT STACK
+     * Same visit order as dfs(Map, start); the stack holds (node, next edge)
+     * frames, so depth is bounded by the heap, not the thread stack.
+     * Time: O(V + E) | Space: O(V)
+     */
+    public static int[] dfs(CsrGraph graph, int start) {
+        int n = graph.nodeCount();
+        long[] visited = new long[(n + 63) >>> 6];
+        int[] order = new int[n];
+        int[] stackNode = new int[n], stackEdge = new int[n];
+        int count = 0, top = 0;
+        
+        setBit(visited, start);
+        order[count++] = start;
+        stackNode[0] = start;
+        stackEdge[0] = graph.offsets[start];
+        
+        while (top >= 0) {
+            int node = stackNode[top];
+            int e = stackEdge[top];
+            if (e == graph.offsets[node + 1]) {
+                top--;
+                continue;
+            }
+            stackEdge[top] = e + 1;
+            int neighbor = graph.targets[e];
+            if (!testBit(visited, neighbor)) {
+                setBit(visited, neighbor);
+                order[count++] = neighbor;
+                top++;
+                stackNode[top] = neighbor;
+                stackEdge[top] = graph.offsets[neighbor];
+            }
+        }
+        
+        return Arrays.copyOf(order, count);
+    }
+
+    /**
+     * DFS ON CSR - ITERATIVE
+     * Same push-all-neighbours order as dfsIterative(Map, start).
+     * Time: O(V + E) | Space: O(V + E)
+     */
+    public static int[] dfsIterative(CsrGraph graph, int start) {
+        int n = graph.nodeCount();
+        long[] visited = new long[(n + 63) >>> 6];
+        int[] order = new int[n];
+        int[] stack = new int[graph.edgeCount() + 1];
+        int count = 0, top = 0;
+        
+        stack[top++] = start;
+        
+        while (top > 0) {
+            int node = stack[--top];
+            
+            if (!testBit(visited, node)) {
+                setBit(visited, node);
+                order[count++] = node;
+                
+                for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+                    if (!testBit(visited, graph.targets[e])) {
+                        stack[top++] = graph.targets[e];
+                    }
+                }
+            }
+        }
+        
+        return Arrays.copyOf(order, count);
+    }
+
+    /**
+     * BFS ON CSR
+     * The result array doubles as the queue.
+     * Time: O(V + E) | Space: O(V)
+     */
+    public static int[] bfs(CsrGraph graph, int start) {
+        int n = graph.nodeCount();
+        long[] visited = new long[(n + 63) >>> 6];
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        
+        setBit(visited, start);
+        queue[tail++] = start;
+        
+        while (head < tail) {
+            int node = queue[head++];
+            
+            for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+                int neighbor = graph.targets[e];
+                if (!testBit(visited, neighbor)) {
+                    setBit(visited, neighbor);
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        
+        return Arrays.copyOf(queue, tail);
+    }
+
+    /**
+     * DIJKSTRA ON CSR
+     * Returns dist[] indexed by node, Long.MAX_VALUE for unreachable nodes.
+     * Unweighted graphs use weight 1.
+     * Time: O((V + E) log V) | Space: O(V)
+     */
+    public static long[] dijkstra(CsrGraph graph, int start) {
+        int n = graph.nodeCount();
+        long[] dist = new long[n];
+        dijkstraDense(graph.offsets, graph.targets, weightsOrOnes(graph), start, dist, null,
+                      new IndexedMinHeap(n));
+        return dist;
+    }
+
+    private static int[] weightsOrOnes(CsrGraph graph) {
+        if (graph.weights != null) return graph.weights;
+        int[] ones = new int[graph.edgeCount()];
+        Arrays.fill(ones, 1);
+        return ones;
+    }
+
+    /**
+     * TOPOLOGICAL SORT ON CSR - DFS
+     * Reverse postorder over every node, with an explicit (node, next edge)
+     * stack. Like topologicalSort(Map), the order is only meaningful for DAGs.
+     * Time: O(V + E) | Space: O(V)
+     */
+    public static int[] topologicalSort(CsrGraph graph) {
+        int n = graph.nodeCount();
+        long[] visited = new long[(n + 63) >>> 6];
+        int[] order = new int[n];
+        int[] stackNode = new int[n], stackEdge = new int[n];
+        int next = n;
+        
+        for (int root = 0; root < n; root++) {
+            if (testBit(visited, root)) continue;
+            int top = 0;
+            setBit(visited, root);
+            stackNode[0] = root;
+            stackEdge[0] = graph.offsets[root];
+            
+            while (top >= 0) {
+                int node = stackNode[top];
+                int e = stackEdge[top];
+                if (e == graph.offsets[node + 1]) {
+                    order[--next] = node; // postorder, filled from the back
+                    top--;
+                    continue;
+                }
+                stackEdge[top] = e + 1;
+                int neighbor = graph.targets[e];
+                if (!testBit(visited, neighbor)) {
+                    setBit(visited, neighbor);
+                    top++;
+                    stackNode[top] = neighbor;
+                    stackEdge[top] = graph.offsets[neighbor];
+                }
+            }
+        }
+        
+        return order;
+    }
+
+    /**
+     * TOPOLOGICAL SORT ON CSR - KAHN'S ALGORITHM
+     * Returns an empty array when the graph has a cycle.
+     * Time: O(V + E) | Space: O(V)
+     */
+    public static int[] topologicalSortKahn(CsrGraph graph) {
+        int n = graph.nodeCount();
+        int[] inDegree = new int[n];
+        for (int target : graph.targets) {
+            inDegree[target]++;
+        }
+        
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        for (int node = 0; node < n; node++) {
+            if (inDegree[node] == 0) queue[tail++] = node;
+        }
+        
+        while (head < tail) {
+            int node = queue[head++];
+            for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+                if (--inDegree[graph.targets[e]] == 0) {
+                    queue[tail++] = graph.targets[e];
+                }
+            }
+        }
+        
+        return tail == n ? queue : new int[0];
+    }
+
+    /**
+     * MEMORY-MAPPED BINARY GRAPH
+     * On-disk CSR, written once and then opened with FileChannel.map, so
+     * loading costs a few system calls however large the graph is. Pages are
+     * read lazily by the OS on first touch and can be evicted again, so graphs
+     * larger than RAM work. The traversal overloads below read the mapped
+     * buffers directly; only per-node state (visited bits, queue, distances)
+     * lives on the heap.
+     *
+     * Layout (little-endian, every section naturally aligned):
+     *   int magic 'CSRG', int version, int flags (1 = weighted), int reserved,
+     *   long nodeCount, long edgeCount,
+     *   long offsets[nodeCount + 1], int targets[edgeCount], int weights[edgeCount]
+     * Files are mapped in 1 GiB segments (a MappedByteBuffer is limited to
+     * 2 GiB); aligned values never straddle a segment boundary.
+     */
+    public static final class MappedGraph {
+        private static final int MAGIC = 0x43535247; // "CSRG"
+        private static final int VERSION = 1;
+        private static final int HEADER_BYTES = 32;
+        private static final int SEGMENT_SHIFT = 30;
+        private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+        
+        private final MappedByteBuffer[] segments;
+        private final int nodeCount;
+        private final long edgeCount;
+        private final boolean weighted;
+        private final long targetsStart, weightsStart;
+        
+        private MappedGraph(MappedByteBuffer[] segments, int nodeCount, long edgeCount,
+                            boolean weighted) {
+            this.segments = segments;
+            this.nodeCount = nodeCount;
+            this.edgeCount = edgeCount;
+            this.weighted = weighted;
+            this.targetsStart = HEADER_BYTES + 8L * (nodeCount + 1);
+            this.weightsStart = targetsStart + 4L * edgeCount;
+        }
+        
+        /** Writes graph to file in the mapped format. */
+        public static void write(CsrGraph graph, Path file) throws IOException {
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer =
+                        ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(graph.isWeighted() ? 1 : 0).putInt(0);
+                buffer.putLong(graph.nodeCount()).putLong(graph.edgeCount());
+                
+                for (int offset : graph.offsets) {
+                    if (buffer.remaining() < 8) flush(buffer, out);
+                    buffer.putLong(offset);
+                }
+                for (int target : graph.targets) {
+                    if (buffer.remaining() < 4) flush(buffer, out);
+                    buffer.putInt(target);
+                }
+                if (graph.isWeighted()) {
+                    for (int weight : graph.weights) {
+                        if (buffer.remaining() < 4) flush(buffer, out);
+                        buffer.putInt(weight);
+                    }
+                }
+                flush(buffer, out);
+            }
+        }
+        
+        /**
+         * Converts a text edge list ("from to" or "from to weight" per line,
+         * blank lines and lines starting with '#' skipped) to the mapped
+         * format without loading the edges: pass 1 counts degrees, then the
+         * file is sized and the offsets written, and pass 2 scatters each
+         * edge's target (and weight) straight into the mapped file. Edges
+         * keep their input order per node, as in CsrGraph.fromEdges. Heap use
+         * is 8 bytes per node, independent of the edge count, so edge lists
+         * larger than the heap and with more than 2^31 edges convert.
+         */
+        public static void convertEdgeList(Path edgeList, Path file) throws IOException {
+            long[] cursor = new long[1024]; // degrees after pass 1, next write slot during pass 2
+            long[] edge = new long[3];
+            int nodeCount = 0;
+            long edgeCount = 0;
+            boolean weighted = false;
+            
+            try (BufferedReader reader = Files.newBufferedReader(edgeList)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int fields = parseEdge(line, edge);
+                    if (fields == 0) continue;
+                    int from = (int) edge[0], to = (int) edge[1];
+                    nodeCount = Math.max(nodeCount, Math.max(from, to) + 1);
+                    if (nodeCount > cursor.length) {
+                        int grown = (int) Math.min(Integer.MAX_VALUE - 8, 2L * nodeCount);
+                        cursor = Arrays.copyOf(cursor, grown);
+                    }
+                    cursor[from]++;
+                    edgeCount++;
+                    weighted |= fields > 2;
+                }
+            }
+            
+            long targetsStart = HEADER_BYTES + 8L * (nodeCount + 1);
+            long weightsStart = targetsStart + 4 * edgeCount;
+            long size = weightsStart + (weighted ? 4 * edgeCount : 0);
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer[] segments = map(out, size, FileChannel.MapMode.READ_WRITE);
+                ByteBuffer header = segments[0];
+                header.putInt(0, MAGIC).putInt(4, VERSION);
+                header.putInt(8, weighted ? 1 : 0).putInt(12, 0);
+                header.putLong(16, nodeCount).putLong(24, edgeCount);
+                
+                long offset = 0;
+                for (int u = 0; u < nodeCount; u++) {
+                    putLong(segments, HEADER_BYTES + 8L * u, offset);
+                    long degree = cursor[u];
+                    cursor[u] = offset;
+                    offset += degree;
+                }
+                putLong(segments, HEADER_BYTES + 8L * nodeCount, offset);
+                
+                try (BufferedReader reader = Files.newBufferedReader(edgeList)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int fields = parseEdge(line, edge);
+                        if (fields == 0) continue;
+                        long slot = cursor[(int) edge[0]]++;
+                        putInt(segments, targetsStart + 4 * slot, (int) edge[1]);
+                        if (weighted) {
+                            int weight = fields > 2 ? (int) edge[2] : 1;
+                            putInt(segments, weightsStart + 4 * slot, weight);
+                        }
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Parses "from to [weight]" into edge; returns the number of fields,
+         * 0 for a blank or comment line.
+         */
+        private static int parseEdge(String line, long[] edge) throws IOException {
+            int i = 0, n = line.length(), fields = 0;
+            while (true) {
+                while (i < n && Character.isWhitespace(line.charAt(i))) i++;
+                if (i == n || (fields == 0 && line.charAt(i) == '#')) break;
+                if (fields == 3) break; // extra columns are ignored
+                int start = i;
+                while (i < n && !Character.isWhitespace(line.charAt(i))) i++;
+                try {
+                    edge[fields++] = Integer.parseInt(line, start, i, 10);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed edge line: " + line, e);
+                }
+            }
+            if (fields == 0) return 0;
+            if (fields == 1 || edge[0] < 0 || edge[1] < 0
+                    || edge[0] == Integer.MAX_VALUE || edge[1] == Integer.MAX_VALUE) {
+                throw new IOException("Malformed edge line: " + line);
+            }
+            return fields;
+        }
+        
+        private static void flush(ByteBuffer buffer, FileChannel out) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) out.write(buffer);
+            buffer.clear();
+        }
+        
+        /** Maps file read-only; the channel is closed again, the mapping stays valid. */
+        public static MappedGraph open(Path file) throws IOException {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = in.size();
+                MappedByteBuffer[] segments = map(in, size, FileChannel.MapMode.READ_ONLY);
+                
+                if (size < HEADER_BYTES || segments[0].getInt(0) != MAGIC) {
+                    throw new IOException(file + " is not a mapped graph file");
+                }
+                int version = segments[0].getInt(4);
+                if (version != VERSION) {
+                    throw new IOException("Unsupported graph file version " + version);
+                }
+                boolean weighted = (segments[0].getInt(8) & 1) != 0;
+                long nodes = segments[0].getLong(16);
+                long edges = segments[0].getLong(24);
+                long expected = HEADER_BYTES + 8 * (nodes + 1) + (weighted ? 8 : 4) * edges;
+                if (nodes > Integer.MAX_VALUE - 1 || size != expected) {
+                    throw new IOException(file + " is truncated or corrupt");
+                }
+                return new MappedGraph(segments, (int) nodes, edges, weighted);
+            }
+        }
+        
+        /** Maps [0, size) in little-endian segments; READ_WRITE mappings grow the file to size. */
+        private static MappedByteBuffer[] map(FileChannel channel, long size,
+                                              FileChannel.MapMode mode) throws IOException {
+            int count = (int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(mode, start, Math.min(1L << SEGMENT_SHIFT, size - start));
+                segments[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return segments;
+        }
+        
+        private static void putInt(MappedByteBuffer[] segments, long position, int value) {
+            int offset = (int) (position & SEGMENT_MASK);
+            segments[(int) (position >>> SEGMENT_SHIFT)].putInt(offset, value);
+        }
+        
+        private static void putLong(MappedByteBuffer[] segments, long position, long value) {
+            int offset = (int) (position & SEGMENT_MASK);
+            segments[(int) (position >>> SEGMENT_SHIFT)].putLong(offset, value);
+        }
+        
+        public int nodeCount() {
+            return nodeCount;
+        }
+        
+        public long edgeCount() {
+            return edgeCount;
+        }
+        
+        public boolean isWeighted() {
+            return weighted;
+        }
+        
+        /** First edge of u; its edges are [edgeStart(u), edgeEnd(u)). */
+        public long edgeStart(int u) {
+            return getLong(HEADER_BYTES + 8L * u);
+        }
+        
+        public long edgeEnd(int u) {
+            return getLong(HEADER_BYTES + 8L * (u + 1));
+        }
+        
+        public int target(long edge) {
+            return getInt(targetsStart + 4 * edge);
+        }
+        
+        public int weight(long edge) {
+            return weighted ? getInt(weightsStart + 4 * edge) : 1;
+        }
+        
+        private int getInt(long position) {
+            int offset = (int) (position & SEGMENT_MASK);
+            return segments[(int) (position >>> SEGMENT_SHIFT)].getInt(offset);
+        }
+        
+        private long getLong(long position) {
+            int offset = (int) (position & SEGMENT_MASK);
+            return segments[(int) (position >>> SEGMENT_SHIFT)].getLong(offset);
+        }
+    }
+
+    /**
+     * BFS ON A MAPPED GRAPH
+     * Time: O(V + E) | Space: O(V) heap
+     */
+    public static int[] bfs(MappedGraph graph, int start) {
+        int n = graph.nodeCount();
+        long[] visited = new long[(n + 63) >>> 6];
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        
+        setBit(visited, start);
+        queue[tail++] = start;
+        
+        while (head < tail) {
+            int node = queue[head++];
+            
+            for (long e = graph.edgeStart(node), end = graph.edgeEnd(node); e < end; e++) {
+                int neighbor = graph.target(e);
+                if (!testBit(visited, neighbor)) {
+                    setBit(visited, neighbor);
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        
+        return Arrays.copyOf(queue, tail);
+    }
+
+    /**
+     * DFS ON A MAPPED GRAPH - RECURSIVE PREORDER, EXPLICIT STACK
+     * Time: O(V + E) | Space: O(V) heap
+     */
+    public static int[] dfs(MappedGraph graph, int start) {
+        int n = graph.nodeCount();
+        long[] visited = new long[(n + 63) >>> 6];
+        int[] order = new int[n];
+        int[] stackNode = new int[n];
+        long[] stackEdge = new long[n];
+        int count = 0, top = 0;
+        
+        setBit(visited, start);
+        order[count++] = start;
+        stackNode[0] = start;
+        stackEdge[0] = graph.edgeStart(start);
+        
+        while (top >= 0) {
+            int node = stackNode[top];
+            long e = stackEdge[top];
+            if (e == graph.edgeEnd(node)) {
+                top--;
+                continue;
+            }
+            stackEdge[top] = e + 1;
+            int neighbor = graph.target(e);
+            if (!testBit(visited, neighbor)) {
+                setBit(visited, neighbor);
+                order[count++] = neighbor;
+                top++;
+                stackNode[top] = neighbor;
+                stackEdge[top] = graph.edgeStart(neighbor);
+            }
+        }
+        
+        return Arrays.copyOf(order, count);
+    }
+
+    /**
+     * DIJKSTRA ON A MAPPED GRAPH
+     * Returns dist[] indexed by node, Long.MAX_VALUE for unreachable nodes.
+     * Time: O((V + E) log V) | Space: O(V) heap
+     */
+    public static long[] dijkstra(MappedGraph graph, int start) {
+        int n = graph.nodeCount();
+        long[] dist = new long[n];
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        Arrays.fill(dist, Long.MAX_VALUE);
+        dist[start] = 0;
+        heap.insert(start, 0);
+        
+        while (!heap.isEmpty()) {
+            long d = heap.peekPriority();
+            int u = heap.poll();
+            
+            for (long e = graph.edgeStart(u), end = graph.edgeEnd(u); e < end; e++) {
+                int v = graph.target(e);
+                long newDist = d + graph.weight(e);
+                if (newDist < dist[v]) {
+                    dist[v] = newDist;
+                    heap.insertOrDecrease(v, newDist);
+                }
+            }
+        }
+        
+        return dist;
+    }
+
+    /**
+     * TOPOLOGICAL SORT ON A MAPPED GRAPH - DFS
+     * Time: O(V + E) | Space: O(V) heap
+     */
+    public static int[] topologicalSort(MappedGraph graph) {
+        int n = graph.nodeCount();
+        long[] visited = new long[(n + 63) >>> 6];
+        int[] order = new int[n];
+        int[] stackNode = new int[n];
+        long[] stackEdge = new long[n];
+        int next = n;
+        
+        for (int root = 0; root < n; root++) {
+            if (testBit(visited, root)) continue;
+            int top = 0;
+            setBit(visited, root);
+            stackNode[0] = root;
+            stackEdge[0] = graph.edgeStart(root);
+            
+            while (top >= 0) {
+                int node = stackNode[top];
+                long e = stackEdge[top];
+                if (e == graph.edgeEnd(node)) {
+                    order[--next] = node;
+                    top--;
+                    continue;
+                }
+                stackEdge[top] = e + 1;
+                int neighbor = graph.target(e);
+                if (!testBit(visited, neighbor)) {
+                    setBit(visited, neighbor);
+                    top++;
+                    stackNode[top] = neighbor;
+                    stackEdge[top] = graph.edgeStart(neighbor);
+                }
+            }
+        }
+        
+        return order;
+    }
+
+    /**
+     * TOPOLOGICAL SORT ON A MAPPED GRAPH - KAHN'S ALGORITHM
+     * Returns an empty array when the graph has a cycle.
+     * Time: O(V + E) | Space: O(V) heap
+     */
+    public static int[] topologicalSortKahn(MappedGraph graph) {
+        int n = graph.nodeCount();
+        int[] inDegree = new int[n];
+        for (long e = 0, m = graph.edgeCount(); e < m; e++) {
+            inDegree[graph.target(e)]++;
+        }
+        
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        for (int node = 0; node < n; node++) {
+            if (inDegree[node] == 0) queue[tail++] = node;
+        }
+        
+        while (head < tail) {
+            int node = queue[head++];
+            for (long e = graph.edgeStart(node), end = graph.edgeEnd(node); e < end; e++) {
+                if (--inDegree[graph.target(e)] == 0) {
+                    queue[tail++] = graph.target(e);
+                }
+            }
+        }
+        
+        return tail == n ? queue : new int[0];
+    }
+
+    /**
+     * POINT-TO-POINT SHORTEST PATH ENGINE
+     * Answers single-pair queries on a CsrGraph with non-negative weights:
+     * - distance: Dijkstra that stops when the target is settled
+     * - bidirectionalDistance: forward search from the source and backward
+     *   search (over the reversed graph) from the target, expanding the
+     *   smaller frontier; stops once topForward + topBackward >= best
+     * - aStarDistance: Dijkstra ordered by g + h with an admissible heuristic
+     * Distances are long; Long.MAX_VALUE means unreachable. All per-query
+     * state (distances, parents, heaps) lives in the engine and only touched
+     * entries are reset, so a query allocates nothing; path() builds the
+     * route of the last query on demand. Not thread-safe: one engine per
+     * thread, sharing the immutable graphs.
+     * Time: O((V + E) log V) worst case per query | Space: O(V)
+     */
+    public static final class ShortestPathEngine {
+        
+        /** Lower bound on the distance from node to target. */
+        @FunctionalInterface
+        public interface Heuristic {
+            long estimate(int node, int target);
+        }
+        
+        private final CsrGraph graph;
+        private final CsrGraph reverse;
+        private final long[] distF, distB;
+        private final int[] parentF, parentB;
+        private final int[] touchedF, touchedB;
+        private final IndexedMinHeap heapF, heapB;
+        private int touchedCountF, touchedCountB;
+        private int meeting = -1;
+        
+        public ShortestPathEngine(CsrGraph graph) {
+            this(graph, graph.reverse());
+        }
+        
+        /** reverse must be graph.reverse(); pass it in to share it between engines. */
+        public ShortestPathEngine(CsrGraph graph, CsrGraph reverse) {
+            int n = graph.nodeCount();
+            this.graph = graph;
+            this.reverse = reverse;
+            this.distF = new long[n];
+            this.distB = new long[n];
+            this.parentF = new int[n];
+            this.parentB = new int[n];
+            this.touchedF = new int[n];
+            this.touchedB = new int[n];
+            this.heapF = new IndexedMinHeap(n);
+            this.heapB = new IndexedMinHeap(n);
+            Arrays.fill(distF, Long.MAX_VALUE);
+            Arrays.fill(distB, Long.MAX_VALUE);
+        }
+        
+        public long distance(int source, int target) {
+            return search(source, target, null);
+        }
+        
+        public long aStarDistance(int source, int target, Heuristic heuristic) {
+            return search(source, target, heuristic);
+        }
+        
+        private long search(int source, int target, Heuristic heuristic) {
+            reset();
+            reachForward(source, 0, -1);
+            heapF.insert(source, heuristic == null ? 0 : heuristic.estimate(source, target));
+            
+            while (!heapF.isEmpty()) {
+                int u = heapF.poll();
+                if (u == target) {
+                    meeting = target;
+                    return distF[target];
+                }
+                
+                long du = distF[u];
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int v = graph.targets[e];
+                    long newDist = du + graph.weight(e);
+                    if (newDist < distF[v]) {
+                        reachForward(v, newDist, u);
+                        long h = heuristic == null ? 0 : heuristic.estimate(v, target);
+                        heapF.insertOrDecrease(v, newDist + h);
+                    }
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+        
+        public long bidirectionalDistance(int source, int target) {
+            reset();
+            reachForward(source, 0, -1);
+            reachBackward(target, 0, -1);
+            heapF.insert(source, 0);
+            heapB.insert(target, 0);
+            
+            long best = Long.MAX_VALUE;
+            if (source == target) {
+                meeting = source;
+                return 0;
+            }
+            
+            while (!heapF.isEmpty() && !heapB.isEmpty()
+                    && heapF.peekPriority() + heapB.peekPriority() < best) {
+                if (heapF.size() <= heapB.size()) {
+                    int u = heapF.poll();
+                    long du = distF[u];
+                    for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                        int v = graph.targets[e];
+                        long newDist = du + graph.weight(e);
+                        if (newDist < distF[v]) {
+                            reachForward(v, newDist, u);
+                            heapF.insertOrDecrease(v, newDist);
+                        }
+                        if (distB[v] != Long.MAX_VALUE && newDist + distB[v] < best) {
+                            best = newDist + distB[v];
+                            meeting = v;
+                        }
+                    }
+                } else {
+                    int u = heapB.poll();
+                    long du = distB[u];
+                    for (int e = reverse.offsets[u]; e < reverse.offsets[u + 1]; e++) {
+                        int v = reverse.targets[e];
+                        long newDist = du + reverse.weight(e);
+                        if (newDist < distB[v]) {
+                            reachBackward(v, newDist, u);
+                            heapB.insertOrDecrease(v, newDist);
+                        }
+                        if (distF[v] != Long.MAX_VALUE && newDist + distF[v] < best) {
+                            best = newDist + distF[v];
+                            meeting = v;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+        
+        /** Nodes from source to target of the last query; empty if unreachable. */
+        public int[] path() {
+            if (meeting < 0) return new int[0];
+            
+            int forwardLength = 0;
+            for (int v = meeting; v >= 0; v = parentF[v]) forwardLength++;
+            int backwardLength = 0;
+            if (distB[meeting] != Long.MAX_VALUE) {
+                for (int v = parentB[meeting]; v >= 0; v = parentB[v]) backwardLength++;
+            }
+            
+            int[] path = new int[forwardLength + backwardLength];
+            int i = forwardLength;
+            for (int v = meeting; v >= 0; v = parentF[v]) path[--i] = v;
+            i = forwardLength;
+            if (backwardLength > 0) {
+                for (int v = parentB[meeting]; v >= 0; v = parentB[v]) path[i++] = v;
+            }
+            return path;
+        }
+        
+        private void reachForward(int v, long dist, int parent) {
+            if (distF[v] == Long.MAX_VALUE) touchedF[touchedCountF++] = v;
+            distF[v] = dist;
+            parentF[v] = parent;
+        }
+        
+        private void reachBackward(int v, long dist, int parent) {
+            if (distB[v] == Long.MAX_VALUE) touchedB[touchedCountB++] = v;
+            distB[v] = dist;
+            parentB[v] = parent;
+        }
+        
+        private void reset() {
+            for (int i = 0; i < touchedCountF; i++) distF[touchedF[i]] = Long.MAX_VALUE;
+            for (int i = 0; i < touchedCountB; i++) distB[touchedB[i]] = Long.MAX_VALUE;
+            touchedCountF = 0;
+            touchedCountB = 0;
+            heapF.clear();
+            heapB.clear();
+            meeting = -1;
+        }
+    }
+
+    /**
+     * SHORTEST-PATH TREE CACHE
+     * Caches the single-source result (distance and predecessor arrays) per
+     * source node in front of Dijkstra on a CsrGraph.
+     * - Bounded LRU: at most maxEntries trees (each 12 * V bytes) are kept;
+     *   the least recently used one is evicted.
+     * - Single-flight: concurrent misses on the same source share one
+     *   computation instead of each running Dijkstra.
+     * - Versioned: updateGraph swaps in a new graph, bumps the version and
+     *   drops every cached tree; computations still running for the old
+     *   version finish for their callers but are not cached.
+     * Hit, miss, shared-wait and eviction counters are exposed for sizing.
+     */
+    public static final class ShortestPathCache {
+        
+        /** Result for one source; treat the arrays as read-only, they are shared. */
+        public static final class ShortestPathTree {
+            public final int source;
+            public final long graphVersion;
+            /** dist[v], Long.MAX_VALUE if unreachable. */
+            public final long[] dist;
+            /** pred[v] on a shortest path from source, -1 for the source and unreachable nodes. */
+            public final int[] pred;
+            
+            ShortestPathTree(int source, long graphVersion, long[] dist, int[] pred) {
+                this.source = source;
+                this.graphVersion = graphVersion;
+                this.dist = dist;
+                this.pred = pred;
+            }
+            
+            /** Nodes from source to target, empty if unreachable. */
+            public int[] pathTo(int target) {
+                if (dist[target] == Long.MAX_VALUE) return new int[0];
+                IntList path = new IntList();
+                for (int v = target; v != -1; v = pred[v]) path.add(v);
+                int[] result = new int[path.size];
+                for (int i = 0; i < path.size; i++) result[i] = path.data[path.size - 1 - i];
+                return result;
+            }
+        }
+        
+        private final int maxEntries;
+        private final LinkedHashMap<Integer, ShortestPathTree> entries;
+        private final ConcurrentHashMap<Long, CompletableFuture<ShortestPathTree>> inFlight =
+                new ConcurrentHashMap<>();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder sharedWaits = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private CsrGraph graph;
+        private long version;
+        
+        public ShortestPathCache(CsrGraph graph, int maxEntries) {
+            if (maxEntries < 1) {
+                throw new IllegalArgumentException("maxEntries must be >= 1: " + maxEntries);
+            }
+            this.graph = graph;
+            this.maxEntries = maxEntries;
+            this.entries = new LinkedHashMap<Integer, ShortestPathTree>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, ShortestPathTree> eldest) {
+                    if (size() <= ShortestPathCache.this.maxEntries) return false;
+                    evictions.increment();
+                    return true;
+                }
+            };
+        }
+        
+        public ShortestPathTree get(int source) {
+            CsrGraph g;
+            long v;
+            synchronized (this) {
+                ShortestPathTree cached = entries.get(source);
+                if (cached != null) {
+                    hits.increment();
+                    return cached;
+                }
+                g = graph;
+                v = version;
+            }
+            
+            long key = v << 32 | (source & 0xFFFFFFFFL);
+            CompletableFuture<ShortestPathTree> mine = new CompletableFuture<>();
+            CompletableFuture<ShortestPathTree> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                sharedWaits.increment();
+                return join(running);
+            }
+            
+            try {
+                ShortestPathTree tree;
+                synchronized (this) {
+                    tree = entries.get(source); // finished between our miss and our claim
+                }
+                if (tree == null) {
+                    misses.increment();
+                    tree = compute(g, source, v);
+                    synchronized (this) {
+                        if (version == v) entries.put(source, tree);
+                    }
+                }
+                mine.complete(tree);
+                return tree;
+            } catch (RuntimeException | Error e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+        
+        /** Switches to a new graph and drops every cached tree. */
+        public synchronized void updateGraph(CsrGraph newGraph) {
+            graph = newGraph;
+            version++;
+            entries.clear();
+        }
+        
+        public synchronized long graphVersion() {
+            return version;
+        }
+        
+        public synchronized int size() {
+            return entries.size();
+        }
+        
+        public long hits() {
+            return hits.sum();
+        }
+        
+        public long misses() {
+            return misses.sum();
+        }
+        
+        /** Requests that waited on another thread's computation instead of computing. */
+        public long sharedWaits() {
+            return sharedWaits.sum();
+        }
+        
+        public long evictions() {
+            return evictions.sum();
+        }
+        
+        private static ShortestPathTree compute(CsrGraph graph, int source, long version) {
+            int n = graph.nodeCount();
+            long[] dist = new long[n];
+            int[] pred = new int[n];
+            dijkstraDense(graph.offsets, graph.targets, weightsOrOnes(graph), source, dist, pred,
+                          new IndexedMinHeap(n));
+            return new ShortestPathTree(source, version, dist, pred);
+        }
+        
+        private static ShortestPathTree join(CompletableFuture<ShortestPathTree> future) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw e;
+            }
+        }
+    }
+
+    private static final int WAVE_MIN_CHUNK = 1 << 10;
+
+    /**
+     * LAYERED PARALLEL KAHN SCHEDULER
+     * topologicalWaves splits a DAG into waves (antichains): wave 0 holds
+     * the nodes without predecessors, and wave k holds the nodes whose last
+     * predecessor is in wave k - 1. Every node of a wave can run concurrently.
+     * In-degrees are counted in parallel into an AtomicIntegerArray, and
+     * each wave's nodes decrement their successors from worker threads. A
+     * node joins the next wave on the thread that drops its count to zero.
+     * Returns an empty array when the graph has a cycle, like
+     * topologicalSortKahn(CsrGraph).
+     * Time: O(V + E) work, O(waves) barriers | Space: O(V)
+     */
+    public static int[][] topologicalWaves(CsrGraph graph) {
+        int n = graph.nodeCount();
+        AtomicIntegerArray inDegree = parallelInDegrees(graph);
+        
+        int[] wave = IntStream.range(0, n).parallel().filter(v -> inDegree.get(v) == 0).toArray();
+        List<int[]> waves = new ArrayList<>();
+        int scheduled = 0;
+        
+        while (wave.length > 0) {
+            waves.add(wave);
+            scheduled += wave.length;
+            int[] current = wave;
+            int size = current.length;
+            int chunks = chunkCount(size, WAVE_MIN_CHUNK);
+            int[][] buffers = new int[chunks][];
+            int[] counts = new int[chunks];
+            
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                IntList ready = new IntList();
+                int start = chunkStart(size, chunks, c), end = chunkStart(size, chunks, c + 1);
+                for (int i = start; i < end; i++) {
+                    int u = current[i];
+                    for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                        if (inDegree.decrementAndGet(graph.targets[e]) == 0) {
+                            ready.add(graph.targets[e]);
+                        }
+                    }
+                }
+                buffers[c] = ready.data;
+                counts[c] = ready.size;
+            });
+            wave = concat(buffers, counts);
+        }
+        
+        return scheduled == n ? waves.toArray(new int[0][]) : new int[0][];
+    }
+
+    private static AtomicIntegerArray parallelInDegrees(CsrGraph graph) {
+        int n = graph.nodeCount(), m = graph.edgeCount();
+        AtomicIntegerArray inDegree = new AtomicIntegerArray(n);
+        int chunks = chunkCount(m, WAVE_MIN_CHUNK);
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int start = chunkStart(m, chunks, c), end = chunkStart(m, chunks, c + 1);
+            for (int e = start; e < end; e++) {
+                inDegree.incrementAndGet(graph.targets[e]);
+            }
+        });
+        return inDegree;
+    }
+
+    /**
+     * DATAFLOW TASK EXECUTION
+     * Runs task(node) on the pool for every node of a DAG, submitting a node
+     * the moment its last predecessor finishes instead of waiting for the
+     * whole wave, so one slow task only delays its own descendants. Blocks
+     * until every task has completed. After the first failure (a task
+     * throwing, or the pool rejecting a submission) no further task starts;
+     * the call waits for the tasks already running and then rethrows it. A
+     * cycle throws IllegalArgumentException before any task runs.
+     */
+    public static void runTopologically(CsrGraph graph, IntConsumer task, ForkJoinPool pool)
+            throws InterruptedException {
+        int n = graph.nodeCount();
+        if (topologicalSortKahn(graph).length != n) {
+            throw new IllegalArgumentException("Graph has a cycle");
+        }
+        if (n == 0) return;
+        
+        DataflowRun run = new DataflowRun(graph, task, pool);
+        // collect the roots first: once tasks run, other counts start reaching zero
+        int[] roots = IntStream.range(0, n).filter(v -> run.pending.get(v) == 0).toArray();
+        for (int root : roots) {
+            run.submit(root);
+        }
+        run.taskFinished(); // drop the caller's token, see DataflowRun
+        
+        try {
+            run.quiescent.get();
+        } catch (InterruptedException e) {
+            run.fail(e); // start nothing new; running tasks finish on their own
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause()); // quiescent never fails
+        }
+        
+        Throwable failure = run.failure.get();
+        if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+        if (failure instanceof Error) throw (Error) failure;
+        if (failure != null) throw new IllegalStateException(failure);
+    }
+
+    /**
+     * Shared state of one runTopologically call. inFlight counts submitted
+     * tasks that have not finished, plus one token the caller holds while
+     * submitting the roots, so it cannot reach zero early. quiescent
+     * completes when every node has run, or when a failure is recorded and
+     * nothing is in flight any more.
+     */
+    private static final class DataflowRun {
+        final CsrGraph graph;
+        final IntConsumer task;
+        final ForkJoinPool pool;
+        final AtomicIntegerArray pending;
+        final AtomicInteger remaining;
+        final AtomicInteger inFlight = new AtomicInteger(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CompletableFuture<Void> quiescent = new CompletableFuture<>();
+        
+        DataflowRun(CsrGraph graph, IntConsumer task, ForkJoinPool pool) {
+            this.graph = graph;
+            this.task = task;
+            this.pool = pool;
+            this.pending = parallelInDegrees(graph);
+            this.remaining = new AtomicInteger(graph.nodeCount());
+        }
+        
+        void submit(int node) {
+            inFlight.incrementAndGet();
+            try {
+                pool.execute(() -> run(node));
+            } catch (RejectedExecutionException e) {
+                fail(e);
+                taskFinished();
+            }
+        }
+        
+        private void run(int node) {
+            try {
+                if (failure.get() != null) return; // an earlier task failed
+                task.accept(node);
+                if (remaining.decrementAndGet() == 0) {
+                    quiescent.complete(null);
+                    return;
+                }
+                for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+                    int next = graph.targets[e];
+                    if (pending.decrementAndGet(next) == 0 && failure.get() == null) submit(next);
+                }
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                taskFinished();
+            }
+        }
+        
+        void fail(Throwable t) {
+            failure.compareAndSet(null, t);
+        }
+        
+        void taskFinished() {
+            if (inFlight.decrementAndGet() == 0 && failure.get() != null) quiescent.complete(null);
+        }
+    }
+
+    private static final int TRIM_SOURCE = 1, TRIM_SINK = 2;
+
+    public static final class SccResult {
+        public final int componentCount;
+        /** component[v] = id of v's component, 0 .. componentCount - 1. */
+        public final int[] component;
+        /** Members of component c are members[memberOffsets[c] .. memberOffsets[c + 1]). */
+        public final int[] memberOffsets;
+        public final int[] members;
+        /** One edge per connected pair of components, unweighted; a DAG. */
+        public final CsrGraph condensation;
+        private final boolean acyclic;
+        
+        SccResult(int componentCount, int[] component, int[] memberOffsets, int[] members,
+                  CsrGraph condensation, boolean acyclic) {
+            this.componentCount = componentCount;
+            this.component = component;
+            this.memberOffsets = memberOffsets;
+            this.members = members;
+            this.condensation = condensation;
+            this.acyclic = acyclic;
+        }
+        
+        public int size(int c) {
+            return memberOffsets[c + 1] - memberOffsets[c];
+        }
+        
+        /** Component ids in topological order of the condensation. */
+        public int[] topologicalOrder() {
+            return IntStream.range(0, componentCount).toArray();
+        }
+        
+        /** True if every component is a single node without a self-loop. */
+        public boolean isAcyclic() {
+            return acyclic;
+        }
+    }
+
+    /**
+     * STRONGLY CONNECTED COMPONENTS (ITERATIVE TARJAN)
+     * Works on cyclic graphs where the topological sorts give up. Tarjan's
+     * DFS runs on explicit int arrays (node, next-edge cursor) instead of the
+     * call stack, so depth is bounded only by V. A node that has been
+     * indexed but has no component yet is on the SCC stack, so no separate
+     * on-stack flag is needed.
+     * Component ids follow a topological order of the condensation: every
+     * edge between components goes from a lower id to a higher one.
+     * With trim = true, a parallel pre-pass first peels off nodes left with
+     * no remaining predecessors (wave by wave, like topologicalWaves) and
+     * then, on the reverse graph, nodes left with no remaining successors.
+     * Each peeled node is its own component. Tarjan only visits the rest,
+     * which on mostly-acyclic graphs is a small core.
+     * Time: O(V + E) | Space: O(V) (trim adds the reverse graph, O(V + E))
+     */
+    public static SccResult stronglyConnectedComponents(CsrGraph graph) {
+        return stronglyConnectedComponents(graph, false);
+    }
+
+    public static SccResult stronglyConnectedComponents(CsrGraph graph, boolean trim) {
+        int n = graph.nodeCount();
+        byte[] trimmed = new byte[n];
+        int[] sources = new int[0], sinks = new int[0];
+        if (trim && n > 0) {
+            sources = peelWaves(graph, parallelInDegrees(graph), trimmed, TRIM_SOURCE);
+            AtomicIntegerArray outDegree = new AtomicIntegerArray(n);
+            IntStream.range(0, n).parallel().forEach(u -> {
+                if (trimmed[u] != 0) return;
+                int d = 0;
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    if (trimmed[graph.targets[e]] == 0) d++;
+                }
+                outDegree.set(u, d);
+            });
+            sinks = peelWaves(graph.reverse(), outDegree, trimmed, TRIM_SINK);
+        }
+        
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int cores = tarjan(graph, trimmed, component);
+        
+        // Tarjan finishes sinks first; peeled sources go in front, peeled sinks at the back.
+        int head = sources.length, count = head + cores + sinks.length;
+        for (int v = 0; v < n; v++) {
+            if (component[v] >= 0) component[v] = head + cores - 1 - component[v];
+        }
+        for (int i = 0; i < sources.length; i++) component[sources[i]] = i;
+        for (int i = 0; i < sinks.length; i++) component[sinks[i]] = count - 1 - i;
+        
+        int[] memberOffsets = new int[count + 1];
+        for (int v = 0; v < n; v++) memberOffsets[component[v] + 1]++;
+        for (int c = 0; c < count; c++) memberOffsets[c + 1] += memberOffsets[c];
+        int[] members = new int[n];
+        int[] fill = Arrays.copyOf(memberOffsets, count);
+        for (int v = 0; v < n; v++) members[fill[component[v]]++] = v;
+        
+        // A self-loop u -> u is a cycle even though u is a component of its own.
+        boolean acyclic = count == n && !hasSelfLoop(graph);
+        return new SccResult(count, component, memberOffsets, members,
+                             condense(graph, component, memberOffsets, members), acyclic);
+    }
+
+    private static boolean hasSelfLoop(CsrGraph graph) {
+        return IntStream.range(0, graph.nodeCount()).parallel().anyMatch(u -> {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                if (graph.targets[e] == u) return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Peels every node whose degree (as counted in degree) reaches zero,
+     * wave by wave along graph's edges, tagging it in trimmed. Returns the
+     * peeled nodes in wave order. Nodes already tagged are ignored.
+     */
+    private static int[] peelWaves(CsrGraph graph, AtomicIntegerArray degree, byte[] trimmed,
+                                   int tag) {
+        int n = graph.nodeCount();
+        int[] wave = IntStream.range(0, n).parallel()
+                              .filter(v -> trimmed[v] == 0 && degree.get(v) == 0).toArray();
+        for (int v : wave) trimmed[v] = (byte) tag;
+        List<int[]> waves = new ArrayList<>();
+        int total = 0;
+        
+        while (wave.length > 0) {
+            waves.add(wave);
+            total += wave.length;
+            int[] current = wave;
+            int size = current.length;
+            int chunks = chunkCount(size, WAVE_MIN_CHUNK);
+            int[][] buffers = new int[chunks][];
+            int[] counts = new int[chunks];
+            
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                IntList ready = new IntList();
+                int start = chunkStart(size, chunks, c), end = chunkStart(size, chunks, c + 1);
+                for (int i = start; i < end; i++) {
+                    int u = current[i];
+                    for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                        int v = graph.targets[e];
+                        // Earlier passes' tags are stable; this pass never
+                        // reaches its own peeled nodes.
+                        if (trimmed[v] == 0 && degree.decrementAndGet(v) == 0) {
+                            trimmed[v] = (byte) tag;
+                            ready.add(v);
+                        }
+                    }
+                }
+                buffers[c] = ready.data;
+                counts[c] = ready.size;
+            });
+            wave = concat(buffers, counts);
+        }
+        
+        int[] peeled = new int[total];
+        int pos = 0;
+        for (int[] w : waves) {
+            System.arraycopy(w, 0, peeled, pos, w.length);
+            pos += w.length;
+        }
+        return peeled;
+    }
+
+    /**
+     * Tarjan over the untrimmed nodes; writes component ids in completion
+     * order (reverse topological) and returns how many it found.
+     */
+    private static int tarjan(CsrGraph graph, byte[] trimmed, int[] component) {
+        int n = graph.nodeCount();
+        int[] offsets = graph.offsets, targets = graph.targets;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        Arrays.fill(index, -1);
+        int[] sccStack = new int[n];
+        int[] callNode = new int[n];
+        int[] callEdge = new int[n];
+        int counter = 0, components = 0, sp = 0;
+        
+        for (int root = 0; root < n; root++) {
+            if (trimmed[root] != 0 || index[root] >= 0) continue;
+            index[root] = low[root] = counter++;
+            sccStack[sp++] = root;
+            callNode[0] = root;
+            callEdge[0] = offsets[root];
+            int depth = 1;
+            
+            while (depth > 0) {
+                int u = callNode[depth - 1];
+                int e = callEdge[depth - 1];
+                if (e < offsets[u + 1]) {
+                    callEdge[depth - 1] = e + 1;
+                    int v = targets[e];
+                    if (trimmed[v] != 0) continue;
+                    if (index[v] < 0) {
+                        index[v] = low[v] = counter++;
+                        sccStack[sp++] = v;
+                        callNode[depth] = v;
+                        callEdge[depth] = offsets[v];
+                        depth++;
+                    } else if (component[v] < 0 && index[v] < low[u]) {
+                        low[u] = index[v]; // v is still on the SCC stack
+                    }
+                    continue;
+                }
+                
+                depth--;
+                if (low[u] == index[u]) {
+                    int v;
+                    do {
+                        v = sccStack[--sp];
+                        component[v] = components;
+                    } while (v != u);
+                    components++;
+                }
+                if (depth > 0) {
+                    int parent = callNode[depth - 1];
+                    if (low[u] < low[parent]) low[parent] = low[u];
+                }
+            }
+        }
+        return components;
+    }
+
+    private static CsrGraph condense(CsrGraph graph, int[] component, int[] memberOffsets,
+                                     int[] members) {
+        int count = memberOffsets.length - 1;
+        int[] offsets = new int[count + 1];
+        int[] lastSource = new int[count];
+        Arrays.fill(lastSource, -1);
+        IntList targets = new IntList();
+        
+        for (int c = 0; c < count; c++) {
+            for (int i = memberOffsets[c]; i < memberOffsets[c + 1]; i++) {
+                int u = members[i];
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int d = component[graph.targets[e]];
+                    if (d != c && lastSource[d] != c) {
+                        lastSource[d] = c;
+                        targets.add(d);
+                    }
+                }
+            }
+            offsets[c + 1] = targets.size;
+        }
+        return new CsrGraph(offsets, Arrays.copyOf(targets.data, targets.size), null);
+    }
+
+    private static final int BFS_ALPHA = 14;
+    private static final int BFS_BETA = 24;
+    private static final int BFS_MIN_CHUNK = 1 << 10;
+
+    public static final class BfsResult {
+        /** Reached nodes in BFS (level) order. */
+        public final int[] order;
+        /** depth[v] = hops from the source, -1 if unreachable. */
+        public final int[] depth;
+        /** parent[v] in the BFS tree, the source is its own parent, -1 if unreachable. */
+        public final int[] parent;
+        
+        BfsResult(int[] order, int[] depth, int[] parent) {
+            this.order = order;
+            this.depth = depth;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * DIRECTION-OPTIMIZING PARALLEL BFS
+     * Level-synchronous. Small frontiers expand top-down: chunks of the
+     * frontier scan their out-edges in parallel, claim unvisited nodes with a
+     * CAS on an atomic bitset and collect them in per-chunk buffers. Once the
+     * frontier's edges outnumber the unexplored edges / ALPHA, levels switch
+     * to bottom-up: each unvisited node scans its in-edges for any parent in
+     * the frontier and stops at the first hit. Bottom-up chunks own whole
+     * 64-node bitset words, so they need no atomics. Switches back to
+     * top-down when the frontier drops under n / BETA.
+     * Order is level by level; within a level it depends on scheduling.
+     * Time: O(V + E) work | Space: O(V)
+     */
+    public static BfsResult parallelBfs(CsrGraph graph, int start) {
+        return parallelBfs(graph, graph.reverse(), start);
+    }
+
+    /** reverse must be graph.reverse(); pass it in to reuse it across searches. */
+    public static BfsResult parallelBfs(CsrGraph graph, CsrGraph reverse, int start) {
+        int n = graph.nodeCount();
+        int[] depth = new int[n], parent = new int[n];
+        Arrays.fill(depth, -1);
+        Arrays.fill(parent, -1);
+        AtomicLongArray visited = new AtomicLongArray((n + 63) >>> 6);
+        long[] frontierBits = new long[visited.length()];
+        
+        int[] order = new int[n];
+        int orderSize = 0;
+        depth[start] = 0;
+        parent[start] = start;
+        claim(visited, start);
+        order[orderSize++] = start;
+        
+        int[] frontier = {start};
+        long unexploredEdges = graph.edgeCount() - graph.degree(start);
+        boolean bottomUp = false;
+        
+        for (int level = 0; frontier.length > 0; level++) {
+            long frontierEdges = 0;
+            for (int u : frontier) frontierEdges += graph.degree(u);
+            
+            if (!bottomUp && frontierEdges > unexploredEdges / BFS_ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontier.length < n / BFS_BETA) {
+                bottomUp = false;
+            }
+            
+            int[] next;
+            if (bottomUp) {
+                for (int u : frontier) setBit(frontierBits, u);
+                next = bottomUpStep(reverse, frontierBits, visited, depth, parent, level, n);
+                for (int u : frontier) frontierBits[u >>> 6] = 0;
+            } else {
+                next = topDownStep(graph, frontier, visited, depth, parent, level);
+            }
+            
+            System.arraycopy(next, 0, order, orderSize, next.length);
+            orderSize += next.length;
+            for (int v : next) unexploredEdges -= graph.degree(v);
+            frontier = next;
+        }
+        
+        return new BfsResult(Arrays.copyOf(order, orderSize), depth, parent);
+    }
+
+    private static int[] topDownStep(CsrGraph graph, int[] frontier, AtomicLongArray visited,
+                                     int[] depth, int[] parent, int level) {
+        int size = frontier.length;
+        int chunks = chunkCount(size, BFS_MIN_CHUNK);
+        int[][] buffers = new int[chunks][];
+        int[] counts = new int[chunks];
+        
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] buffer = new int[16];
+            int k = 0;
+            int start = chunkStart(size, chunks, c), end = chunkStart(size, chunks, c + 1);
+            for (int i = start; i < end; i++) {
+                int u = frontier[i];
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int v = graph.targets[e];
+                    if (claim(visited, v)) {
+                        parent[v] = u;
+                        depth[v] = level + 1;
+                        if (k == buffer.length) buffer = Arrays.copyOf(buffer, 2 * k);
+                        buffer[k++] = v;
+                    }
+                }
+            }
+            buffers[c] = buffer;
+            counts[c] = k;
+        });
+        
+        return concat(buffers, counts);
+    }
+
+    private static int[] bottomUpStep(CsrGraph reverse, long[] frontierBits,
+                                      AtomicLongArray visited, int[] depth, int[] parent,
+                                      int level, int n) {
+        int words = visited.length();
+        int chunks = chunkCount(words, BFS_MIN_CHUNK >>> 6);
+        int[][] buffers = new int[chunks][];
+        int[] counts = new int[chunks];
+        
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] buffer = new int[16];
+            int k = 0;
+            int start = chunkStart(words, chunks, c), end = chunkStart(words, chunks, c + 1);
+            for (int w = start; w < end; w++) {
+                long seen = visited.get(w);
+                long unvisited = ~seen;
+                if (w == words - 1 && (n & 63) != 0) unvisited &= (1L << (n & 63)) - 1;
+                long found = 0;
+                
+                while (unvisited != 0) {
+                    int v = (w << 6) + Long.numberOfTrailingZeros(unvisited);
+                    unvisited &= unvisited - 1;
+                    for (int e = reverse.offsets[v]; e < reverse.offsets[v + 1]; e++) {
+                        int u = reverse.targets[e];
+                        if (testBit(frontierBits, u)) {
+                            parent[v] = u;
+                            depth[v] = level + 1;
+                            found |= 1L << v;
+                            if (k == buffer.length) buffer = Arrays.copyOf(buffer, 2 * k);
+                            buffer[k++] = v;
+                            break;
+                        }
+                    }
+                }
+                if (found != 0) visited.set(w, seen | found);
+            }
+            buffers[c] = buffer;
+            counts[c] = k;
+        });
+        
+        return concat(buffers, counts);
+    }
+
+    /** Atomically sets bit i; returns true if this call set it. */
+    private static boolean claim(AtomicLongArray bits, int i) {
+        int w = i >>> 6;
+        long mask = 1L << i;
+        long old;
+        do {
+            old = bits.get(w);
+            if ((old & mask) != 0) return false;
+        } while (!bits.compareAndSet(w, old, old | mask));
+        return true;
+    }
+
+    private static int[] concat(int[][] buffers, int[] counts) {
+        int total = 0;
+        for (int count : counts) total += count;
+        int[] result = new int[total];
+        int pos = 0;
+        for (int c = 0; c < buffers.length; c++) {
+            System.arraycopy(buffers[c], 0, result, pos, counts[c]);
+            pos += counts[c];
+        }
+        return result;
+    }
+
+    public static final class MultiSourceBfsResult {
+        /** The source of each row, in request order. */
+        public final int[] sources;
+        /** dist[i][v] = hops from sources[i] to v, -1 if unreachable. */
+        public final int[][] dist;
+        
+        MultiSourceBfsResult(int[] sources, int[][] dist) {
+            this.sources = sources;
+            this.dist = dist;
+        }
+        
+        /** Nodes reachable from sources[i] (including itself), ascending. */
+        public int[] reachable(int i) {
+            return IntStream.range(0, dist[i].length).filter(v -> dist[i][v] >= 0).toArray();
+        }
+        
+        /** Nodes within k hops of sources[i], ascending. */
+        public int[] withinHops(int i, int k) {
+            return IntStream.range(0, dist[i].length)
+                    .filter(v -> dist[i][v] >= 0 && dist[i][v] <= k).toArray();
+        }
+    }
+
+    /**
+     * MULTI-SOURCE BIT-PARALLEL BFS
+     * Runs one BFS per source, 64 sources per pass, with a single sweep over
+     * the graph per level: bit i of seen[v] / frontier[v] says whether source
+     * i has reached v. A node on the frontier of any source ORs its frontier
+     * word into each neighbour, and the bits that were not already seen become
+     * that neighbour's next frontier. Only nodes on some frontier are
+     * scanned, so each edge is read at most once per level it carries bits.
+     * More than 64 sources run in batches of 64.
+     * Time: O(ceil(k / 64) * min(64, D) * (V + E)), D = diameter | Space: O(V) words
+     */
+    public static MultiSourceBfsResult multiSourceBfs(CsrGraph graph, int... sources) {
+        int n = graph.nodeCount();
+        int[][] dist = new int[sources.length][n];
+        long[] seen = new long[n], frontier = new long[n], next = new long[n];
+        IntList active = new IntList(), touched = new IntList();
+        
+        for (int base = 0; base < sources.length; base += 64) {
+            int batch = Math.min(64, sources.length - base);
+            Arrays.fill(seen, 0);
+            active.clear();
+            for (int i = 0; i < batch; i++) {
+                Arrays.fill(dist[base + i], -1);
+                int s = sources[base + i];
+                if (frontier[s] == 0) active.add(s);
+                seen[s] |= 1L << i;
+                frontier[s] |= 1L << i;
+                dist[base + i][s] = 0;
+            }
+            
+            for (int level = 1; !active.isEmpty(); level++) {
+                touched.clear();
+                for (int j = 0; j < active.size; j++) {
+                    int u = active.data[j];
+                    long bits = frontier[u];
+                    frontier[u] = 0;
+                    for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                        int v = graph.targets[e];
+                        if (next[v] == 0) touched.add(v);
+                        next[v] |= bits;
+                    }
+                }
+                
+                active.clear();
+                for (int j = 0; j < touched.size; j++) {
+                    int v = touched.data[j];
+                    long fresh = next[v] & ~seen[v];
+                    next[v] = 0;
+                    if (fresh == 0) continue;
+                    seen[v] |= fresh;
+                    frontier[v] = fresh;
+                    active.add(v);
+                    while (fresh != 0) {
+                        int i = Long.numberOfTrailingZeros(fresh);
+                        fresh &= fresh - 1;
+                        dist[base + i][v] = level;
+                    }
+                }
+            }
+        }
+        
+        return new MultiSourceBfsResult(sources.clone(), dist);
+    }
+
+    private static final int DELTA_STEPPING_MIN_CHUNK = 1 << 9;
+    private static final int DELTA_STEPPING_MAX_BUCKETS = 1 << 20;
+
+    /**
+     * PARALLEL DELTA-STEPPING SSSP
+     * Nodes are kept in buckets of width delta by tentative distance. The
+     * lowest bucket is emptied in phases: its nodes relax their light edges
+     * (weight <= delta) in parallel, which may refill the same bucket; once
+     * it stays empty, every node removed from it relaxes its heavy edges in
+     * parallel. Distances live in an AtomicLongArray and are lowered with a
+     * CAS-min loop, so results match dijkstra for non-negative weights.
+     * Tentative distances never run more than max weight + delta past the
+     * current bucket, so buckets live in a ring of maxWeight / delta + 2
+     * IntLists indexed by (dist / delta) mod size, and the next bucket is
+     * found by scanning forward. delta is raised if needed to keep the ring
+     * within 2^20 slots.
+     * delta = 1 behaves like Dijkstra, delta = infinity like Bellman-Ford;
+     * the default is max weight / average degree.
+     * Time: O(V + E + L * d + D / delta) work for L buckets, d = max degree,
+     * D = max distance | Space: O(V + maxWeight / delta)
+     */
+    public static long[] deltaSteppingSssp(CsrGraph graph, int source) {
+        return deltaSteppingSssp(graph, source, defaultDelta(graph), ForkJoinPool.commonPool());
+    }
+
+    public static long[] deltaSteppingSssp(CsrGraph graph, int source, long delta,
+                                           ForkJoinPool pool) {
+        if (delta < 1) throw new IllegalArgumentException("delta must be >= 1: " + delta);
+        int n = graph.nodeCount();
+        AtomicLongArray dist = new AtomicLongArray(n);
+        for (int v = 0; v < n; v++) dist.set(v, Long.MAX_VALUE);
+        dist.set(source, 0);
+        
+        long maxWeight = maxWeight(graph);
+        delta = Math.max(delta, maxWeight / (DELTA_STEPPING_MAX_BUCKETS - 2) + 1);
+        IntList[] buckets = new IntList[(int) (maxWeight / delta) + 2];
+        int[] frontierMark = new int[n];
+        int[] settledMark = new int[n];
+        int phase = 0, round = 0;
+        buckets[0] = IntList.of(source);
+        long pending = 1; // entries across all buckets, stale ones included
+        
+        for (long bucket = 0; pending > 0; bucket++) {
+            int slot = (int) (bucket % buckets.length);
+            if (buckets[slot] == null) continue;
+            IntList settled = new IntList();
+            round++;
+            
+            while (buckets[slot] != null) {
+                IntList candidates = buckets[slot];
+                buckets[slot] = null;
+                pending -= candidates.size;
+                IntList frontier = new IntList();
+                phase++;
+                for (int i = 0; i < candidates.size; i++) {
+                    int v = candidates.data[i];
+                    // skip duplicates and stale entries of nodes that moved to a lower bucket
+                    if (frontierMark[v] == phase || dist.get(v) / delta != bucket) continue;
+                    frontierMark[v] = phase;
+                    frontier.add(v);
+                    if (settledMark[v] != round) {
+                        settledMark[v] = round;
+                        settled.add(v);
+                    }
+                }
+                if (frontier.size == 0) break;
+                IntList improved = relaxParallel(graph, frontier, dist, delta, true, pool);
+                pending += rebucket(improved, dist, delta, buckets);
+            }
+            IntList improved = relaxParallel(graph, settled, dist, delta, false, pool);
+            pending += rebucket(improved, dist, delta, buckets);
+        }
+        
+        long[] result = new long[n];
+        for (int v = 0; v < n; v++) result[v] = dist.get(v);
+        return result;
+    }
+
+    /** Relaxes the light (or heavy) edges of nodes; returns nodes whose distance dropped. */
+    private static IntList relaxParallel(CsrGraph graph, IntList nodes, AtomicLongArray dist,
+                                         long delta, boolean light, ForkJoinPool pool) {
+        int size = nodes.size;
+        int chunks = Math.max(1,
+                Math.min(pool.getParallelism() * 4, size / DELTA_STEPPING_MIN_CHUNK));
+        IntList[] improved = new IntList[chunks];
+        
+        pool.invoke(new ChunkTask(0, chunks, c -> {
+            IntList local = new IntList();
+            int start = chunkStart(size, chunks, c), end = chunkStart(size, chunks, c + 1);
+            for (int i = start; i < end; i++) {
+                int u = nodes.data[i];
+                long du = dist.get(u);
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int w = graph.weight(e);
+                    if ((w <= delta) != light) continue;
+                    int v = graph.targets[e];
+                    long newDist = du + w;
+                    long current;
+                    while (newDist < (current = dist.get(v))) {
+                        if (dist.compareAndSet(v, current, newDist)) {
+                            local.add(v);
+                            break;
+                        }
+                    }
+                }
+            }
+            improved[c] = local;
+        }));
+        
+        IntList all = new IntList();
+        for (IntList local : improved) all.addAll(local);
+        return all;
+    }
+
+    /** Appends nodes to the ring slots of their buckets; returns how many were added. */
+    private static int rebucket(IntList nodes, AtomicLongArray dist, long delta,
+                                IntList[] buckets) {
+        for (int i = 0; i < nodes.size; i++) {
+            int v = nodes.data[i];
+            int slot = (int) (dist.get(v) / delta % buckets.length);
+            if (buckets[slot] == null) buckets[slot] = new IntList();
+            buckets[slot].add(v);
+        }
+        return nodes.size;
+    }
+
+    private static long defaultDelta(CsrGraph graph) {
+        int n = graph.nodeCount(), m = graph.edgeCount();
+        if (m == 0) return 1;
+        return Math.max(1, maxWeight(graph) * n / m);
+    }
+
+    private static long maxWeight(CsrGraph graph) {
+        long maxWeight = 1;
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            maxWeight = Math.max(maxWeight, graph.weight(e));
+        }
+        return maxWeight;
+    }
+
+    /**
+     * Runs deltaSteppingSssp once per thread count on a dedicated pool and
+     * reports wall time, speedup over the first entry and parallel efficiency
+     * (speedup / threads relative to that entry). One untimed run on the
+     * first pool warms up the JIT so the baseline is not charged for it.
+     */
+    public static ScalingReport deltaSteppingScaling(CsrGraph graph, int source, long delta,
+                                                     int... threadCounts) {
+        long[] nanos = new long[threadCounts.length];
+        for (int i = 0; i < threadCounts.length; i++) {
+            ForkJoinPool pool = new ForkJoinPool(threadCounts[i]);
+            try {
+                if (i == 0) deltaSteppingSssp(graph, source, delta, pool);
+                long begin = System.nanoTime();
+                deltaSteppingSssp(graph, source, delta, pool);
+                nanos[i] = System.nanoTime() - begin;
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return new ScalingReport(threadCounts.clone(), nanos);
+    }
+
+    /** Wall time per thread count, with speedup and efficiency against the first row. */
+    public static final class ScalingReport {
+        public final int[] threads;
+        public final long[] nanos;
+        
+        ScalingReport(int[] threads, long[] nanos) {
+            this.threads = threads;
+            this.nanos = nanos;
+        }
+        
+        public double speedup(int i) {
+            return (double) nanos[0] / nanos[i];
+        }
+        
+        public double efficiency(int i) {
+            return speedup(i) * threads[0] / threads[i];
+        }
+        
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("threads  millis  speedup  efficiency\n");
+            for (int i = 0; i < threads.length; i++) {
+                sb.append(String.format("%7d  %6.1f  %7.2f  %10.2f%n",
+                        threads[i], nanos[i] / 1e6, speedup(i), efficiency(i)));
+            }
+            return sb.toString();
+        }
+    }
+
+    /** Runs body(c) for every chunk c in [lo, hi) on the pool it is invoked in. */
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final int lo, hi;
+        private final IntConsumer body;
+        
+        ChunkTask(int lo, int hi, IntConsumer body) {
+            this.lo = lo;
+            this.hi = hi;
+            this.body = body;
+        }
+        
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                body.accept(lo);
+            } else if (hi > lo) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new ChunkTask(lo, mid, body), new ChunkTask(mid, hi, body));
+            }
+        }
+    }
+
+    private static boolean testBit(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void setBit(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+
+    /**
+     * MINIMUM SPANNING FOREST
+     * Both variants take the edge list as primitive arrays (edge i joins
+     * from[i] and to[i] with weight weight[i], undirected) and return the
+     * total weight plus the indices of the chosen edges. Ties are broken by
+     * edge index, so both pick the same forest for the same input.
+     */
+    public static final class SpanningForest {
+        public final long totalWeight;
+        /** Indices into the input edge arrays, in the order they were chosen. */
+        public final int[] edges;
+        
+        SpanningForest(long totalWeight, int[] edges) {
+            this.totalWeight = totalWeight;
+            this.edges = edges;
+        }
+    }
+
+    /**
+     * KRUSKAL
+     * Packs every edge as (weight << 32 | edge index) into a long[]
+     * and sorts it with parallelRadixSort, then keeps each edge whose
+     * endpoints UnionFind still sees in different sets.
+     * Time: O(E α(V)) after the O(E) radix sort | Space: O(V + E)
+     */
+    public static SpanningForest kruskal(int nodeCount, int[] from, int[] to, int[] weight) {
+        int m = from.length;
+        long[] keys = new long[m];
+        for (int e = 0; e < m; e++) {
+            keys[e] = edgeKey(weight[e], e);
+        }
+        parallelRadixSort(keys);
+        
+        UnionFind uf = new UnionFind(nodeCount);
+        int[] chosen = new int[Math.max(nodeCount - 1, 0)];
+        int count = 0;
+        long total = 0;
+        for (int i = 0; i < m && count < chosen.length; i++) {
+            int e = (int) keys[i];
+            if (uf.union(from[e], to[e])) {
+                chosen[count++] = e;
+                total += weight[e];
+            }
+        }
+        
+        return new SpanningForest(total, Arrays.copyOf(chosen, count));
+    }
+
+    private static final int BORUVKA_MIN_CHUNK = 1 << 12;
+
+    /**
+     * BORUVKA
+     * Each round, every edge still crossing two components offers itself to
+     * both components in parallel; each component keeps its cheapest offer
+     * with a CAS-min on a packed (weight, index) long. The winners are then
+     * merged, and edges that became internal are dropped before the next
+     * round. At least half the components disappear per round.
+     * Time: O(E log V) work, O(log V) rounds | Space: O(V + E)
+     */
+    public static SpanningForest boruvka(int nodeCount, int[] from, int[] to, int[] weight) {
+        ConcurrentUnionFind components = new ConcurrentUnionFind(nodeCount);
+        AtomicLongArray cheapest = new AtomicLongArray(nodeCount);
+        IntList chosen = new IntList();
+        long total = 0;
+        int[] active = IntStream.range(0, from.length).filter(e -> from[e] != to[e]).toArray();
+        
+        while (active.length > 0) {
+            for (int v = 0; v < nodeCount; v++) cheapest.set(v, Long.MAX_VALUE);
+            
+            int[] edges = active;
+            int size = edges.length;
+            int chunks = chunkCount(size, BORUVKA_MIN_CHUNK);
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int start = chunkStart(size, chunks, c), end = chunkStart(size, chunks, c + 1);
+                for (int i = start; i < end; i++) {
+                    int e = edges[i];
+                    long key = edgeKey(weight[e], e);
+                    casMin(cheapest, components.find(from[e]), key);
+                    casMin(cheapest, components.find(to[e]), key);
+                }
+            });
+            
+            for (int v = 0; v < nodeCount; v++) {
+                long key = cheapest.get(v);
+                if (key == Long.MAX_VALUE) continue;
+                int e = (int) key;
+                if (components.union(from[e], to[e])) { // false when both ends picked e
+                    chosen.add(e);
+                    total += weight[e];
+                }
+            }
+            
+            active = Arrays.stream(edges).parallel()
+                    .filter(e -> components.find(from[e]) != components.find(to[e]))
+                    .toArray();
+        }
+        
+        return new SpanningForest(total, Arrays.copyOf(chosen.data, chosen.size));
+    }
+
+    /** Orders by weight, then by edge index, as a signed long. */
+    private static long edgeKey(int weight, int edge) {
+        return (long) weight << 32 | edge;
+    }
+
+    private static void casMin(AtomicLongArray array, int i, long value) {
+        long current;
+        while (value < (current = array.get(i))) {
+            if (array.compareAndSet(i, current, value)) return;
+        }
+    }
+
+    // ==================== STRING ALGORITHMS ====================
+
+    /**
+     * KMP STRING MATCHING
+     * Patterns of up to 64 Latin-1 chars take the shared fast path
+     * (fastIndexOf, see FAST SUBSTRING SEARCH), which returns the same index
+     * without backtracking.
+     * Time: O(n + m) | Space: O(m)
+     */
+    public static int kmpSearch(String text, String pattern) {
+        if (pattern.isEmpty()) return 0;
+        int fast = fastIndexOf(text, pattern);
+        if (fast != NO_FAST_PATH) return fast;
+        int[] lps = buildLPS(pattern);
+        int j = 0;
+        
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            while (j > 0 && pattern.charAt(j) != c) {
+                j = lps[j - 1];
+            }
+            if (pattern.charAt(j) == c && ++j == pattern.length()) {
+                return i - j + 1;
+            }
+        }
+        
+        return -1;
+    }
+
+    private static int[] buildLPS(String pattern) {
+        int[] lps = new int[pattern.length()];
+        int len = 0, i = 1;
+        
+        while (i < pattern.length()) {
+            if (pattern.charAt(i) == pattern.charAt(len)) {
+                len++;
+                lps[i] = len;
+                i++;
+            } else {
+                if (len != 0) {
+                    len = lps[len - 1];
+                } else {
+                    lps[i] = 0;
+                    i++;
+                }
+            }
+        }
+        
+        return lps;
+    }
+
+    /**
+     * STREAMING KMP MATCHER
+     * Compiles the pattern and its LPS table once. The matcher is immutable
+     * and can be shared between threads; each input stream gets its own
+     * Scan (chars) or ByteScan (bytes of the pattern in a given charset,
+     * UTF-8 by default). A scan keeps the partial-match length across
+     * chunks, so a match split over two chunks is still found, and reports
+     * the start offset of every match, overlapping ones included, to a
+     * LongConsumer. Offsets count chars (Scan) or bytes (ByteScan) from the
+     * start of the stream. Nothing is allocated per match.
+     * Time: O(m) compile, O(n) scan | Space: O(m)
+     */
+    public static final class KmpMatcher {
+        private static final int READ_BUFFER = 1 << 13;
+        
+        private final String pattern;
+        private final char[] chars;
+        private final int[] lps;
+        private final byte[] bytes;
+        private final int[] byteLps;
+        
+        public KmpMatcher(String pattern) {
+            this(pattern, java.nio.charset.StandardCharsets.UTF_8);
+        }
+        
+        public KmpMatcher(String pattern, java.nio.charset.Charset charset) {
+            if (pattern.isEmpty()) throw new IllegalArgumentException("Empty pattern");
+            this.pattern = pattern;
+            this.chars = pattern.toCharArray();
+            this.lps = buildLPS(pattern);
+            this.bytes = pattern.getBytes(charset);
+            // Latin-1 maps bytes 1:1 to chars, so the String-based builder serves both.
+            this.byteLps =
+                    buildLPS(new String(bytes, java.nio.charset.StandardCharsets.ISO_8859_1));
+        }
+        
+        public String pattern() {
+            return pattern;
+        }
+        
+        /** Reports every match in text; returns the number of matches. */
+        public long findAll(CharSequence text, LongConsumer sink) {
+            Scan scan = scan(sink);
+            scan.feed(CharBuffer.wrap(text));
+            return scan.matches();
+        }
+        
+        /** Reads the reader to the end (without closing it); returns the number of matches. */
+        public long findAll(Reader reader, LongConsumer sink) throws IOException {
+            Scan scan = scan(sink);
+            char[] buffer = new char[READ_BUFFER];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                scan.feed(buffer, 0, read);
+            }
+            return scan.matches();
+        }
+        
+        /** Reads the stream to the end (without closing it); returns the number of matches. */
+        public long findAll(InputStream in, LongConsumer sink) throws IOException {
+            ByteScan scan = scanBytes(sink);
+            byte[] buffer = new byte[READ_BUFFER];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                scan.feed(buffer, 0, read);
+            }
+            return scan.matches();
+        }
+        
+        public Scan scan(LongConsumer sink) {
+            return new Scan(sink);
+        }
+        
+        public ByteScan scanBytes(LongConsumer sink) {
+            return new ByteScan(sink);
+        }
+        
+        /** Incremental state over one char stream; not thread-safe. */
+        public final class Scan {
+            private final LongConsumer sink;
+            private int matched;
+            private long position;
+            private long matches;
+            
+            Scan(LongConsumer sink) {
+                this.sink = sink;
+            }
+            
+            /** Consumes the buffer's remaining chars. */
+            public void feed(CharBuffer chunk) {
+                int len = chunk.remaining();
+                if (chunk.hasArray()) {
+                    feed(chunk.array(), chunk.arrayOffset() + chunk.position(), len);
+                } else {
+                    int j = matched, m = chars.length, start = chunk.position();
+                    for (int i = 0; i < len; i++) {
+                        char c = chunk.get(start + i);
+                        while (j > 0 && c != chars[j]) j = lps[j - 1];
+                        if (c == chars[j] && ++j == m) {
+                            sink.accept(position + i - m + 1);
+                            matches++;
+                            j = lps[m - 1];
+                        }
+                    }
+                    matched = j;
+                    position += len;
+                }
+                chunk.position(chunk.limit());
+            }
+            
+            public void feed(char[] chunk, int offset, int length) {
+                int j = matched, m = chars.length;
+                long base = position - offset - m + 1;
+                for (int i = offset, end = offset + length; i < end; i++) {
+                    char c = chunk[i];
+                    while (j > 0 && c != chars[j]) j = lps[j - 1];
+                    if (c == chars[j] && ++j == m) {
+                        sink.accept(base + i);
+                        matches++;
+                        j = lps[m - 1];
+                    }
+                }
+                matched = j;
+                position += length;
+            }
+            
+            /** Chars consumed so far. */
+            public long position() {
+                return position;
+            }
+            
+            public long matches() {
+                return matches;
+            }
+            
+            public void reset() {
+                matched = 0;
+                position = 0;
+                matches = 0;
+            }
+        }
+        
+        /** Incremental state over one byte stream; not thread-safe. */
+        public final class ByteScan {
+            private final LongConsumer sink;
+            private int matched;
+            private long position;
+            private long matches;
+            
+            ByteScan(LongConsumer sink) {
+                this.sink = sink;
+            }
+            
+            /** Consumes the buffer's remaining bytes; works on direct and mapped buffers. */
+            public void feed(ByteBuffer chunk) {
+                int len = chunk.remaining();
+                if (chunk.hasArray()) {
+                    feed(chunk.array(), chunk.arrayOffset() + chunk.position(), len);
+                } else {
+                    int j = matched, m = bytes.length, start = chunk.position();
+                    for (int i = 0; i < len; i++) {
+                        byte b = chunk.get(start + i);
+                        while (j > 0 && b != bytes[j]) j = byteLps[j - 1];
+                        if (b == bytes[j] && ++j == m) {
+                            sink.accept(position + i - m + 1);
+                            matches++;
+                            j = byteLps[m - 1];
+                        }
+                    }
+                    matched = j;
+                    position += len;
+                }
+                chunk.position(chunk.limit());
+            }
+            
+            public void feed(byte[] chunk, int offset, int length) {
+                int j = matched, m = bytes.length;
+                long base = position - offset - m + 1;
+                for (int i = offset, end = offset + length; i < end; i++) {
+                    byte b = chunk[i];
+                    while (j > 0 && b != bytes[j]) j = byteLps[j - 1];
+                    if (b == bytes[j] && ++j == m) {
+                        sink.accept(base + i);
+                        matches++;
+                        j = byteLps[m - 1];
+                    }
+                }
+                matched = j;
+                position += length;
+            }
+            
+            /** Bytes consumed so far. */
+            public long position() {
+                return position;
+            }
+            
+            public long matches() {
+                return matches;
+            }
+            
+            public void reset() {
+                matched = 0;
+                position = 0;
+                matches = 0;
+            }
+        }
+    }
+
+    private static final VarHandle LONG_LE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long LOW_BYTE_BITS = 0x0101010101010101L;
+    private static final int NO_FAST_PATH = -2;
+
+    /**
+     * FAST SUBSTRING SEARCH (SWAR FIRST/LAST BYTE FILTER + SHIFT-OR)
+     * indexOf(byte[] ...) and indexOf(ByteBuffer ...) return the same
+     * first match index kmpSearch would on the same bytes.
+     * - Filter: eight candidate positions at a time. One long is read at
+     *   i and one at i + m - 1, and a zero-byte test on (word ^ broadcast)
+     *   flags the positions where both the first and the last pattern
+     *   byte match. Only those are verified, with a ranged Arrays.equals
+     *   (a JDK intrinsic).
+     * - Fallback: if more than one position in four turns out to be a
+     *   false candidate (e.g. "aaa" in runs of 'a'), the rest of the text
+     *   is searched with Shift-Or (patterns up to 64 bytes: one shift, one
+     *   OR, one test per byte) or KMP, so the worst case stays O(n).
+     * Direct and mapped buffers are read in place with absolute getLong
+     * (byte-swapped when the buffer is big-endian), so a call allocates
+     * nothing however small the buffer.
+     * kmpSearch and rabinKarp share fastIndexOf for short Latin-1 patterns.
+     * Time: O(n) worst case, ~n / 8 word steps when candidates are rare
+     * Space: O(1) (O(m) for KMP)
+     */
+    public static int indexOf(byte[] text, byte[] pattern) {
+        return indexOf(text, 0, text.length, pattern);
+    }
+
+    /** First match starting in [from, to - m], or -1. */
+    public static int indexOf(byte[] text, int from, int to, byte[] pattern) {
+        Objects.checkFromToIndex(from, to, text.length);
+        int m = pattern.length;
+        if (m == 0) return from;
+        int last = to - m; // last possible start
+        long first = LOW_BYTE_BITS * (pattern[0] & 0xFF);
+        long tail = LOW_BYTE_BITS * (pattern[m - 1] & 0xFF);
+        int misses = 0;
+        int i = from;
+        
+        for (; i <= last - 7; i += 8) {
+            long hits = zeroBytes((long) LONG_LE.get(text, i) ^ first)
+                      & zeroBytes((long) LONG_LE.get(text, i + m - 1) ^ tail);
+            while (hits != 0) {
+                int p = i + (Long.numberOfTrailingZeros(hits) >>> 3);
+                if (Arrays.equals(text, p + 1, p + m, pattern, 1, m)) return p;
+                hits &= hits - 1;
+                misses++;
+            }
+            if (misses > 64 + ((i - from) >>> 2)) {
+                return m <= Long.SIZE ? shiftOr(text, i + 8, to, pattern)
+                                      : kmpIndexOf(text, i + 8, to, pattern);
+            }
+        }
+        for (; i <= last; i++) {
+            if (text[i] == pattern[0] && Arrays.equals(text, i + 1, i + m, pattern, 1, m)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * First match in the buffer's remaining bytes, as an absolute index, or
+     * -1. Leaves the position unchanged.
+     */
+    public static int indexOf(ByteBuffer text, byte[] pattern) {
+        int from = text.position(), to = text.limit(), m = pattern.length;
+        if (text.hasArray()) {
+            int offset = text.arrayOffset();
+            int found = indexOf(text.array(), offset + from, offset + to, pattern);
+            return found < 0 ? -1 : found - offset;
+        }
+        if (m == 0) return from;
+        boolean swap = text.order() != ByteOrder.LITTLE_ENDIAN;
+        int last = to - m;
+        long first = LOW_BYTE_BITS * (pattern[0] & 0xFF);
+        long tail = LOW_BYTE_BITS * (pattern[m - 1] & 0xFF);
+        int misses = 0;
+        int i = from;
+        
+        for (; i <= last - 7; i += 8) {
+            long head = text.getLong(i), end = text.getLong(i + m - 1);
+            if (swap) {
+                head = Long.reverseBytes(head);
+                end = Long.reverseBytes(end);
+            }
+            long hits = zeroBytes(head ^ first) & zeroBytes(end ^ tail);
+            while (hits != 0) {
+                int p = i + (Long.numberOfTrailingZeros(hits) >>> 3);
+                if (matchesAt(text, p, pattern)) return p;
+                hits &= hits - 1;
+                misses++;
+            }
+            if (misses > 64 + ((i - from) >>> 2)) {
+                return m <= Long.SIZE ? shiftOr(text, i + 8, to, pattern)
+                                      : kmpIndexOf(text, i + 8, to, pattern);
+            }
+        }
+        for (; i <= last; i++) {
+            if (text.get(i) == pattern[0] && matchesAt(text, i, pattern)) return i;
+        }
+        return -1;
+    }
+
+    /** True if pattern[1..m) matches text from absolute index p + 1. */
+    private static boolean matchesAt(ByteBuffer text, int p, byte[] pattern) {
+        for (int j = 1; j < pattern.length; j++) {
+            if (text.get(p + j) != pattern[j]) return false;
+        }
+        return true;
+    }
+
+    /** Sets the high bit of every zero byte of v (exact, no borrow into neighbours). */
+    private static long zeroBytes(long v) {
+        return ~(((v & LOW_SEVEN_BITS) + LOW_SEVEN_BITS) | v | LOW_SEVEN_BITS);
+    }
+
+    /** Shift-Or for 1 <= m <= 64: bit j of state is clear while pattern[0..j] matches. */
+    private static int shiftOr(byte[] text, int from, int to, byte[] pattern) {
+        int m = pattern.length;
+        long[] masks = new long[256];
+        Arrays.fill(masks, -1L);
+        for (int j = 0; j < m; j++) masks[pattern[j] & 0xFF] &= ~(1L << j);
+        long found = 1L << (m - 1);
+        long state = -1L;
+        
+        for (int i = from; i < to; i++) {
+            state = (state << 1) | masks[text[i] & 0xFF];
+            if ((state & found) == 0) return i - m + 1;
+        }
+        return -1;
+    }
+
+    private static int shiftOr(ByteBuffer text, int from, int to, byte[] pattern) {
+        int m = pattern.length;
+        long[] masks = new long[256];
+        Arrays.fill(masks, -1L);
+        for (int j = 0; j < m; j++) masks[pattern[j] & 0xFF] &= ~(1L << j);
+        long found = 1L << (m - 1);
+        long state = -1L;
+        
+        for (int i = from; i < to; i++) {
+            state = (state << 1) | masks[text.get(i) & 0xFF];
+            if ((state & found) == 0) return i - m + 1;
+        }
+        return -1;
+    }
+
+    private static int kmpIndexOf(byte[] text, int from, int to, byte[] pattern) {
+        int m = pattern.length;
+        int[] lps = buildLPS(new String(pattern, java.nio.charset.StandardCharsets.ISO_8859_1));
+        int j = 0;
+        
+        for (int i = from; i < to; i++) {
+            byte b = text[i];
+            while (j > 0 && pattern[j] != b) j = lps[j - 1];
+            if (pattern[j] == b && ++j == m) return i - m + 1;
+        }
+        return -1;
+    }
+
+    private static int kmpIndexOf(ByteBuffer text, int from, int to, byte[] pattern) {
+        int m = pattern.length;
+        int[] lps = buildLPS(new String(pattern, java.nio.charset.StandardCharsets.ISO_8859_1));
+        int j = 0;
+        
+        for (int i = from; i < to; i++) {
+            byte b = text.get(i);
+            while (j > 0 && pattern[j] != b) j = lps[j - 1];
+            if (pattern[j] == b && ++j == m) return i - m + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Fast path shared by kmpSearch and rabinKarp: patterns of 1..64 Latin-1
+     * chars run Shift-Or over the String's chars; anything else returns
+     * NO_FAST_PATH. The text is deliberately not encoded for the byte-level
+     * indexOf: that would copy all n chars per call before the first
+     * comparison, however early the match, and would turn chars above 255
+     * into '?', which a pattern could then match.
+     */
+    private static int fastIndexOf(String text, String pattern) {
+        int m = pattern.length();
+        if (m == 0 || m > Long.SIZE || !isLatin1(pattern)) return NO_FAST_PATH;
+        return shiftOr(text, pattern);
+    }
+
+    /** Shift-Or over chars for patterns of 1..64 chars below 256; text chars above never match. */
+    private static int shiftOr(String text, String pattern) {
+        int m = pattern.length();
+        long[] masks = new long[256];
+        Arrays.fill(masks, -1L);
+        for (int j = 0; j < m; j++) masks[pattern.charAt(j)] &= ~(1L << j);
+        long found = 1L << (m - 1);
+        long state = -1L;
+        
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            state = (state << 1) | (c < 256 ? masks[c] : -1L);
+            if ((state & found) == 0) return i - m + 1;
+        }
+        return -1;
+    }
+
+    private static boolean isLatin1(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 256) return false;
+        }
+        return true;
+    }
+
+    /**
+     * AHO-CORASICK MULTI-PATTERN MATCHER
+     * Finds every occurrence of every keyword in one pass, instead of one
+     * kmpSearch per keyword. Keywords are matched on their UTF-8 bytes and
+     * offsets are byte offsets from the start of the stream.
+     * Compiled into flat arrays: bytes map to equivalence classes (one per
+     * byte that occurs in some keyword, plus one for everything else), and
+     * the goto and failure functions are merged into a complete DFA,
+     * delta[state * classes + class], so each input byte costs one table
+     * lookup and no failure-link walk. Entries are stored premultiplied by
+     * the class count and negated when the target state ends a keyword,
+     * so the scan loop only branches on a sign.
+     * - ignoreCase folds ASCII letters; other bytes must match exactly.
+     * - wholeWords keeps a match only when the bytes around it are not word
+     *   bytes (ASCII letters, digits, '_' or any byte >= 0x80). A match is
+     *   reported once the byte after it (or finish) has been seen.
+     * Duplicate keywords share the id of their first occurrence.
+     * Time: O(L * C) compile (L = total keyword bytes, C = classes),
+     *       O(n + matches) scan | Space: O(L * C)
+     */
+    public static final class AhoCorasick {
+        
+        @FunctionalInterface
+        public interface MatchListener {
+            void onMatch(int keyword, long start);
+        }
+        
+        private static final int READ_BUFFER = 1 << 16;
+        
+        private final String[] keywords;
+        private final boolean wholeWords;
+        private final int[] classOf = new int[256];
+        private final int classes;
+        private final int[] delta;
+        private final int[] depth;
+        private final int[] keywordAt;  // keyword ending exactly at a state, or -1
+        private final int[] output;     // first keyword-ending state on the suffix chain, or -1
+        private final int[] nextOutput; // the following one after output-state t, or -1
+        private final int maxDepth;
+        
+        private AhoCorasick(String[] keywords, boolean ignoreCase, boolean wholeWords) {
+            this.keywords = keywords;
+            this.wholeWords = wholeWords;
+            byte[][] encoded = new byte[keywords.length][];
+            long total = 1;
+            for (int k = 0; k < keywords.length; k++) {
+                if (keywords[k].isEmpty()) {
+                    throw new IllegalArgumentException("Empty keyword at " + k);
+                }
+                encoded[k] = keywords[k].getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                if (ignoreCase) {
+                    for (int i = 0; i < encoded[k].length; i++) {
+                        encoded[k][i] = foldCase(encoded[k][i]);
+                    }
+                }
+                total += encoded[k].length;
+            }
+            
+            int c = 1; // class 0: bytes no keyword uses
+            for (byte[] word : encoded) {
+                for (byte b : word) {
+                    if (classOf[b & 0xFF] == 0) classOf[b & 0xFF] = c++;
+                }
+            }
+            if (ignoreCase) {
+                for (int b = 'A'; b <= 'Z'; b++) classOf[b] = classOf[b + ('a' - 'A')];
+            }
+            this.classes = c;
+            if (total * classes > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException(
+                    "Automaton too large: " + total + " states x " + classes + " classes");
+            }
+            
+            // Trie first, with 0 meaning "no child" (the root is nobody's child).
+            int capacity = (int) total;
+            int[] goTo = new int[capacity * classes];
+            int[] keywordAt = new int[capacity];
+            int[] depth = new int[capacity];
+            Arrays.fill(keywordAt, -1);
+            int states = 1, maxDepth = 0;
+            for (int k = 0; k < encoded.length; k++) {
+                int s = 0;
+                for (byte b : encoded[k]) {
+                    int slot = s * classes + classOf[b & 0xFF];
+                    if (goTo[slot] == 0) {
+                        depth[states] = depth[s] + 1;
+                        goTo[slot] = states++;
+                    }
+                    s = goTo[slot];
+                }
+                if (keywordAt[s] < 0) keywordAt[s] = k;
+                maxDepth = Math.max(maxDepth, depth[s]);
+            }
+            
+            // BFS: failure links, missing transitions via the failure state, output chains.
+            int[] fail = new int[states];
+            int[] output = new int[states];
+            int[] nextOutput = new int[states];
+            int[] queue = new int[states];
+            output[0] = nextOutput[0] = -1;
+            int head = 0, tail = 0;
+            for (int cls = 0; cls < classes; cls++) {
+                int child = goTo[cls];
+                if (child != 0) queue[tail++] = child;
+            }
+            while (head < tail) {
+                int s = queue[head++];
+                nextOutput[s] = output[fail[s]];
+                output[s] = keywordAt[s] >= 0 ? s : nextOutput[s];
+                int row = s * classes, failRow = fail[s] * classes;
+                for (int cls = 0; cls < classes; cls++) {
+                    int child = goTo[row + cls];
+                    if (child != 0) {
+                        fail[child] = goTo[failRow + cls];
+                        queue[tail++] = child;
+                    } else {
+                        goTo[row + cls] = goTo[failRow + cls];
+                    }
+                }
+            }
+            
+            // Renumber states in BFS order: shallow states, where scans spend
+            // most steps, share cache lines.
+            int[] rank = new int[states];
+            for (int i = 0; i < tail; i++) rank[queue[i]] = i + 1;
+            int[] delta = new int[states * classes];
+            this.depth = new int[states];
+            this.keywordAt = new int[states];
+            this.output = new int[states];
+            this.nextOutput = new int[states];
+            for (int s = 0; s < states; s++) {
+                int r = rank[s];
+                for (int cls = 0; cls < classes; cls++) {
+                    int t = goTo[s * classes + cls];
+                    int next = rank[t] * classes;
+                    delta[r * classes + cls] = output[t] >= 0 ? -next : next;
+                }
+                this.depth[r] = depth[s];
+                this.keywordAt[r] = keywordAt[s];
+                this.output[r] = output[s] >= 0 ? rank[output[s]] : -1;
+                this.nextOutput[r] = nextOutput[s] >= 0 ? rank[nextOutput[s]] : -1;
+            }
+            this.delta = delta;
+            this.maxDepth = maxDepth;
+        }
+        
+        public static AhoCorasick compile(Collection<String> keywords) {
+            return compile(keywords, false, false);
+        }
+        
+        public static AhoCorasick compile(Collection<String> keywords, boolean ignoreCase,
+                                          boolean wholeWords) {
+            return new AhoCorasick(keywords.toArray(new String[0]), ignoreCase, wholeWords);
+        }
+        
+        /** Compiles every word stored in the trie; ids follow the trie's depth-first order. */
+        public static AhoCorasick compile(Trie trie, boolean ignoreCase, boolean wholeWords) {
+            List<String> words = new ArrayList<>();
+            collectWords(trie.root, new StringBuilder(), words);
+            return compile(words, ignoreCase, wholeWords);
+        }
+        
+        private static void collectWords(TrieNode node, StringBuilder prefix, List<String> words) {
+            if (node.isEndOfWord && prefix.length() > 0) words.add(prefix.toString());
+            for (Map.Entry<Character, TrieNode> child : node.children.entrySet()) {
+                prefix.append(child.getKey());
+                collectWords(child.getValue(), prefix, words);
+                prefix.setLength(prefix.length() - 1);
+            }
+        }
+        
+        public int keywordCount() {
+            return keywords.length;
+        }
+        
+        public String keyword(int id) {
+            return keywords[id];
+        }
+        
+        public int stateCount() {
+            return depth.length;
+        }
+        
+        /** Scans the whole array; returns the number of matches. */
+        public long findAll(byte[] text, MatchListener listener) {
+            Scan scan = scan(listener);
+            scan.feed(text, 0, text.length);
+            scan.finish();
+            return scan.matches();
+        }
+        
+        /** Reads the stream to the end (without closing it); returns the number of matches. */
+        public long findAll(InputStream in, MatchListener listener) throws IOException {
+            Scan scan = scan(listener);
+            byte[] buffer = new byte[READ_BUFFER];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                scan.feed(buffer, 0, read);
+            }
+            scan.finish();
+            return scan.matches();
+        }
+        
+        public Scan scan(MatchListener listener) {
+            return new Scan(listener);
+        }
+        
+        private static byte foldCase(byte b) {
+            return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+        }
+        
+        private static boolean isWordByte(byte b) {
+            return b < 0 || b == '_' || (b >= '0' && b <= '9')
+                    || (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+        }
+        
+        /**
+         * Incremental state over one byte stream; not thread-safe. Call
+         * finish() after the last chunk so whole-word matches at the very
+         * end are reported.
+         */
+        public final class Scan {
+            private final MatchListener listener;
+            private final boolean[] wordRing; // whole-word mode: isWord of the last bytes
+            private final int ringMask;
+            private int state;        // premultiplied by classes
+            private int pendingState; // whole-word mode: keyword end at position - 1, or -1
+            private long position;
+            private long matches;
+            private byte[] scratch; // direct-buffer staging, allocated on first use
+            
+            Scan(MatchListener listener) {
+                this.listener = listener;
+                int ring = wholeWords ? Integer.highestOneBit(maxDepth + 1) << 1 : 1;
+                this.wordRing = new boolean[ring];
+                this.ringMask = ring - 1;
+                this.pendingState = -1;
+            }
+            
+            /**
+             * Consumes the buffer's remaining bytes; works on direct and
+             * mapped buffers, which are copied through one READ_BUFFER-sized
+             * scratch array per Scan, so repeated calls allocate nothing.
+             */
+            public void feed(ByteBuffer chunk) {
+                if (chunk.hasArray()) {
+                    feed(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+                    chunk.position(chunk.limit());
+                    return;
+                }
+                if (scratch == null) scratch = new byte[READ_BUFFER];
+                while (chunk.hasRemaining()) {
+                    int len = Math.min(scratch.length, chunk.remaining());
+                    chunk.get(scratch, 0, len);
+                    feed(scratch, 0, len);
+                }
+            }
+            
+            public void feed(byte[] chunk, int offset, int length) {
+                if (wholeWords) {
+                    feedWholeWords(chunk, offset, length);
+                    return;
+                }
+                int[] delta = AhoCorasick.this.delta;
+                int[] classOf = AhoCorasick.this.classOf;
+                int s = state;
+                for (int i = offset, end = offset + length; i < end; i++) {
+                    s = delta[s + classOf[chunk[i] & 0xFF]];
+                    if (s < 0) {
+                        s = -s;
+                        report(s / classes, position + (i - offset), false);
+                    }
+                }
+                state = s;
+                position += length;
+            }
+            
+            private void feedWholeWords(byte[] chunk, int offset, int length) {
+                int s = state;
+                for (int i = offset, end = offset + length; i < end; i++) {
+                    byte b = chunk[i];
+                    long p = position + (i - offset);
+                    boolean word = isWordByte(b);
+                    if (pendingState >= 0 && !word) report(pendingState, p - 1, true);
+                    wordRing[(int) p & ringMask] = word;
+                    s = delta[s + classOf[b & 0xFF]];
+                    if (s < 0) {
+                        s = -s;
+                        pendingState = s / classes;
+                    } else {
+                        pendingState = -1;
+                    }
+                }
+                state = s;
+                position += length;
+            }
+            
+            /** Marks the end of the stream; the scan can be reused after reset(). */
+            public void finish() {
+                if (pendingState >= 0) report(pendingState, position - 1, true);
+                pendingState = -1;
+            }
+            
+            private void report(int s, long end, boolean checkStart) {
+                for (int t = output[s]; t >= 0; t = nextOutput[t]) {
+                    long start = end - depth[t] + 1;
+                    if (checkStart && start > 0 && wordRing[(int) (start - 1) & ringMask]) continue;
+                    matches++;
+                    listener.onMatch(keywordAt[t], start);
+                }
+            }
+            
+            /** Bytes consumed so far. */
+            public long position() {
+                return position;
+            }
+            
+            public long matches() {
+                return matches;
+            }
+            
+            public void reset() {
+                state = 0;
+                pendingState = -1;
+                position = 0;
+                matches = 0;
+            }
+        }
+    }
+
+    private static final long MERSENNE_61 = (1L << 61) - 1;
+    private static final long RABIN_KARP_BASE = 0x1F3D5B79A2C4E68BL & MERSENNE_61;
+
+    /**
+     * RABIN-KARP STRING MATCHING
+     * Rolling polynomial hash modulo the Mersenne prime 2^61 - 1: each shift
+     * drops the outgoing char and adds the incoming one in O(1), and the
+     * 61-bit modulus makes false candidates rare. Candidates are verified
+     * in place with regionMatches, so nothing is allocated per window.
+     * Patterns of up to 64 Latin-1 chars are dispatched to the same Shift-Or
+     * fast path as kmpSearch (fastIndexOf); only longer patterns, or ones
+     * with chars above 255, roll the hash.
+     * Time: O(n + m) expected | Space: O(1)
+     */
+    public static int rabinKarp(String text, String pattern) {
+        int n = text.length(), m = pattern.length();
+        if (m == 0) return 0;
+        if (m > n) return -1;
+        int fast = fastIndexOf(text, pattern);
+        if (fast != NO_FAST_PATH) return fast;
+        
+        long patternHash = 0, windowHash = 0, dropFactor = 1; // dropFactor = BASE^(m-1)
+        for (int i = 0; i < m; i++) {
+            patternHash = rollIn(patternHash, RABIN_KARP_BASE, pattern.charAt(i));
+            windowHash = rollIn(windowHash, RABIN_KARP_BASE, text.charAt(i));
+            if (i > 0) dropFactor = mulMod61(dropFactor, RABIN_KARP_BASE);
+        }
+        
+        for (int i = 0; ; i++) {
+            if (windowHash == patternHash && text.regionMatches(i, pattern, 0, m)) return i;
+            if (i + m == n) return -1;
+            windowHash = roll(windowHash, RABIN_KARP_BASE, dropFactor,
+                              text.charAt(i), text.charAt(i + m));
+        }
+    }
+
+    /** hash * base + c (mod 2^61 - 1). */
+    private static long rollIn(long hash, long base, char c) {
+        long h = mulMod61(hash, base) + c;
+        return h >= MERSENNE_61 ? h - MERSENNE_61 : h;
+    }
+
+    /** Slides the window one char: drops out (weighted by dropFactor = base^(m-1)), appends in. */
+    private static long roll(long hash, long base, long dropFactor, char out, char in) {
+        long h = hash - mulMod61(out, dropFactor);
+        if (h < 0) h += MERSENNE_61;
+        return rollIn(h, base, in);
+    }
+
+    /** a * b mod 2^61 - 1 for a, b < 2^61, using 2^61 = 1 (mod 2^61 - 1). */
+    private static long mulMod61(long a, long b) {
+        long lo = a * b;
+        long hi = Math.multiplyHigh(a, b);
+        long r = (lo & MERSENNE_61) + ((hi << 3) | (lo >>> 61));
+        r = (r & MERSENNE_61) + (r >>> 61);
+        return r >= MERSENNE_61 ? r - MERSENNE_61 : r;
+    }
+
+    /**
+     * MULTI-PATTERN RABIN-KARP
+     * Looks up many patterns of one common length in a single rolling pass:
+     * pattern fingerprints live in an open-addressing table of primitive
+     * longs, so each window costs one hash update and one probe. Patterns
+     * sharing a fingerprint are chained and each is verified in place.
+     * The base is drawn at random per matcher, so crafted inputs cannot
+     * force collisions across runs. windowFingerprints exposes the raw
+     * rolling hashes (shingles) for near-duplicate detection.
+     * Duplicate patterns share the id of their first occurrence.
+     * Time: O(n + k * m) expected (k patterns of length m) | Space: O(k)
+     */
+    public static final class RabinKarpMatcher {
+        
+        @FunctionalInterface
+        public interface MatchListener {
+            void onMatch(int pattern, int start);
+        }
+        
+        private final String[] patterns;
+        private final int length;
+        private final long base;
+        private final long dropFactor;
+        private final long[] tableKeys;
+        private final int[] tableHeads; // first pattern id per slot, -1 when empty
+        private final int[] nextSame;   // next pattern id with the same fingerprint, -1 at the end
+        private final int mask;
+        private final int shift;        // 64 - log2(capacity): slotOf keeps the top bits
+        
+        public RabinKarpMatcher(Collection<String> patterns) {
+            this.patterns = patterns.toArray(new String[0]);
+            if (this.patterns.length == 0) throw new IllegalArgumentException("No patterns");
+            this.length = this.patterns[0].length();
+            if (length == 0) throw new IllegalArgumentException("Empty pattern");
+            this.base = 256 + new SplittableRandom().nextLong(MERSENNE_61 - 512);
+            long drop = 1;
+            for (int i = 1; i < length; i++) drop = mulMod61(drop, base);
+            this.dropFactor = drop;
+            
+            int capacity = Integer.highestOneBit(Math.max(2, this.patterns.length) * 2 - 1) << 1;
+            this.mask = capacity - 1;
+            this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+            this.tableKeys = new long[capacity];
+            this.tableHeads = new int[capacity];
+            this.nextSame = new int[this.patterns.length];
+            Arrays.fill(tableHeads, -1);
+            
+            Set<String> seen = new HashSet<>();
+            for (int id = 0; id < this.patterns.length; id++) {
+                String p = this.patterns[id];
+                if (p.length() != length) {
+                    throw new IllegalArgumentException(
+                        "Pattern " + id + " has length " + p.length() + ", expected " + length);
+                }
+                if (!seen.add(p)) continue;
+                long fp = fingerprint(p, 0);
+                int slot = slotOf(fp);
+                while (tableHeads[slot] >= 0 && tableKeys[slot] != fp) slot = (slot + 1) & mask;
+                tableKeys[slot] = fp;
+                nextSame[id] = tableHeads[slot];
+                tableHeads[slot] = id;
+            }
+        }
+        
+        public int patternLength() {
+            return length;
+        }
+        
+        public String pattern(int id) {
+            return patterns[id];
+        }
+        
+        /** Reports every (pattern, start) occurrence; returns the number of matches. */
+        public long findAll(CharSequence text, MatchListener listener) {
+            int n = text.length();
+            if (n < length) return 0;
+            long hash = fingerprint(text, 0);
+            long matches = 0;
+            
+            for (int i = 0; ; i++) {
+                int slot = slotOf(hash);
+                while (tableHeads[slot] >= 0) {
+                    if (tableKeys[slot] == hash) {
+                        for (int id = tableHeads[slot]; id >= 0; id = nextSame[id]) {
+                            if (regionEquals(text, i, patterns[id])) {
+                                listener.onMatch(id, i);
+                                matches++;
+                                break; // chained patterns are distinct, so at most one matches
+                            }
+                        }
+                        break;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                if (i + length == n) return matches;
+                hash = roll(hash, base, dropFactor, text.charAt(i), text.charAt(i + length));
+            }
+        }
+        
+        /** True if any pattern occurs in text. */
+        public boolean containsAny(CharSequence text) {
+            boolean[] found = new boolean[1];
+            findAll(text, (pattern, start) -> found[0] = true);
+            return found[0];
+        }
+        
+        /**
+         * Rolling fingerprint of every window of patternLength() chars:
+         * result[i] covers text[i, i + patternLength()). Fingerprints from
+         * the same matcher are comparable across texts.
+         */
+        public long[] windowFingerprints(CharSequence text) {
+            int windows = text.length() - length + 1;
+            if (windows <= 0) return new long[0];
+            long[] result = new long[windows];
+            long hash = fingerprint(text, 0);
+            result[0] = hash;
+            for (int i = 1; i < windows; i++) {
+                hash = roll(hash, base, dropFactor,
+                            text.charAt(i - 1), text.charAt(i - 1 + length));
+                result[i] = hash;
+            }
+            return result;
+        }
+        
+        private long fingerprint(CharSequence s, int from) {
+            long hash = 0;
+            for (int i = from; i < from + length; i++) hash = rollIn(hash, base, s.charAt(i));
+            return hash;
+        }
+        
+        /** Fibonacci hashing: the top log2(capacity) bits of the product are the best mixed. */
+        private int slotOf(long fingerprint) {
+            return (int) ((fingerprint * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+        
+        private static boolean regionEquals(CharSequence text, int start, String pattern) {
+            for (int j = 0; j < pattern.length(); j++) {
+                if (text.charAt(start + j) != pattern.charAt(j)) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * CONTENT-DEFINED CHUNKING (GEAR / FASTCDC)
+     * Splits files into variable-size chunks whose boundaries depend only
+     * on nearby content, so an insertion early in a file shifts only the
+     * chunks around it and the rest still deduplicate against older
+     * backups. A Gear rolling hash (hash = (hash << 1) + GEAR[byte]) runs
+     * over the memory-mapped file and cuts where its top bits are all zero.
+     * - No hashing in the first minSize bytes of a chunk, so cut points are
+     *   never checked there.
+     * - Normalized chunking: a stricter mask (more bits) before avgSize and
+     *   a looser one after it pull chunk sizes toward avgSize.
+     * - A cut is forced at maxSize.
+     * Each chunk is fingerprinted with SHA-256, fed straight from the
+     * mapped buffer. Files map in 1 GiB windows; a chunk that crosses a
+     * window keeps its hash and digest state. deduplicate() processes files
+     * in parallel into a shared DedupIndex, so many files can keep several
+     * disks busy at once.
+     * Time: O(n) | Space: O(1) per file (plus the index)
+     *
+     * Usage:
+     *   DedupIndex index = new DedupIndex();
+     *   new ContentDefinedChunker().minSize(2 << 10).avgSize(8 << 10).maxSize(64 << 10)
+     *       .deduplicate(files, index);
+     *   index.duplicateRatio();
+     */
+    public static final class ContentDefinedChunker {
+        private static final int WINDOW_SHIFT = 30;
+        private static final long[] GEAR = new long[256];
+        
+        static {
+            // Fixed seed: cut points must be stable across runs.
+            SplittableRandom random = new SplittableRandom(0x6765617243444321L);
+            for (int i = 0; i < 256; i++) GEAR[i] = random.nextLong();
+        }
+        
+        @FunctionalInterface
+        public interface ChunkListener {
+            void onChunk(long offset, int length, ChunkFingerprint fingerprint);
+        }
+        
+        private int minSize = 2 << 10;
+        private int avgSize = 8 << 10;
+        private int maxSize = 64 << 10;
+        
+        public ContentDefinedChunker minSize(int bytes) {
+            this.minSize = bytes;
+            return this;
         }
         
-        Queue<Integer> queue = new LinkedList<>();
-        for (int node : allNodes) {
-            if (inDegree.getOrDefault(node, 0) == 0) {
-                queue.add(node);
-            }
+        /** Target average; rounded down to a power of two. */
+        public ContentDefinedChunker avgSize(int bytes) {
+            this.avgSize = bytes;
+            return this;
         }
         
-        List<Integer> result = new ArrayList<>();
+        public ContentDefinedChunker maxSize(int bytes) {
+            this.maxSize = bytes;
+            return this;
+        }
         
-        while (!queue.isEmpty()) {
-            int node = queue.poll();
-            result.add(node);
+        /** Chunks one file, reporting chunks in file order. */
+        public void chunk(Path file, ChunkListener listener) throws IOException {
+            validate();
+            int bits = 31 - Integer.numberOfLeadingZeros(avgSize);
+            long strictMask = topBits(bits + 1), looseMask = topBits(Math.max(1, bits - 1));
+            int avg = 1 << bits;
+            MessageDigest digest = sha256();
             
-            for (int neighbor : graph.getOrDefault(node, new ArrayList<>())) {
-                inDegree.put(neighbor, inDegree.get(neighbor) - 1);
-                if (inDegree.get(neighbor) == 0) {
-                    queue.add(neighbor);
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = in.size();
+                long chunkStart = 0, hash = 0;
+                
+                for (long base = 0; base < size; base += 1L << WINDOW_SHIFT) {
+                    int limit = (int) Math.min(1L << WINDOW_SHIFT, size - base);
+                    MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, base, limit);
+                    // Window bytes already fed to the digest.
+                    int digested = (int) Math.max(0, chunkStart - base);
+                    int i = digested;
+                    
+                    while (i < limit) {
+                        long len = base + i - chunkStart;
+                        if (len < minSize) {
+                            i += (int) Math.min(minSize - len, limit - i);
+                            continue;
+                        }
+                        boolean cut = false;
+                        if (len < avg) {
+                            int end = (int) Math.min(limit, i + (avg - len));
+                            for (; i < end; i++) {
+                                hash = (hash << 1) + GEAR[window.get(i) & 0xFF];
+                                if ((hash & strictMask) == 0) {
+                                    cut = true;
+                                    i++;
+                                    break;
+                                }
+                            }
+                        } else {
+                            int end = (int) Math.min(limit, i + (maxSize - len));
+                            for (; i < end; i++) {
+                                hash = (hash << 1) + GEAR[window.get(i) & 0xFF];
+                                if ((hash & looseMask) == 0) {
+                                    cut = true;
+                                    i++;
+                                    break;
+                                }
+                            }
+                            cut |= base + i - chunkStart == maxSize;
+                        }
+                        if (cut) {
+                            update(digest, window, digested, i);
+                            digested = i;
+                            listener.onChunk(chunkStart, (int) (base + i - chunkStart),
+                                             new ChunkFingerprint(digest.digest()));
+                            chunkStart = base + i;
+                            hash = 0;
+                        }
+                    }
+                    update(digest, window, digested, limit);
+                }
+                if (chunkStart < size) {
+                    listener.onChunk(chunkStart, (int) (size - chunkStart),
+                                     new ChunkFingerprint(digest.digest()));
                 }
             }
         }
         
-        return result.size() == allNodes.size() ? result : new ArrayList<>();
-    }
-
-    // ==================== STRING ALGORITHMS ====================
-
-    /**
-     * KMP STRING MATCHING
-     * Time: O(n + m) | Space: O(m)
-     */
-    public static int kmpSearch(String text, String pattern) {
-        int[] lps = buildLPS(pattern);
-        int i = 0, j = 0;
-        
-        while (i < text.length()) {
-            if (pattern.charAt(j) == text.charAt(i)) {
-                i++;
-                j++;
+        /**
+         * Chunks every file in parallel (one file per task) into the index.
+         * Listener calls, if any, arrive concurrently from worker threads.
+         */
+        public void deduplicate(Collection<Path> files, DedupIndex index) throws IOException {
+            validate();
+            try {
+                files.parallelStream().forEach(file -> {
+                    try {
+                        chunk(file, (offset, length, fingerprint) ->
+                                index.add(fingerprint, length));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
             }
-            
-            if (j == pattern.length()) {
-                return i - j;
-            } else if (i < text.length() && pattern.charAt(j) != text.charAt(i)) {
-                j = j != 0 ? lps[j - 1] : 0;
-                if (j < pattern.length() && pattern.charAt(j) == text.charAt(i)) {
-                    i++;
-                    j++;
-                }
+        }
+        
+        private void validate() {
+            if (minSize < 64 || minSize > avgSize || avgSize > maxSize) {
+                throw new IllegalArgumentException(
+                    "Need 64 <= minSize <= avgSize <= maxSize: " +
+                    minSize + ", " + avgSize + ", " + maxSize);
             }
         }
         
-        return -1;
+        private static long topBits(int count) {
+            return -1L << (64 - count);
+        }
+        
+        private static void update(MessageDigest digest, ByteBuffer window, int from, int to) {
+            if (from < to) digest.update(window.duplicate().position(from).limit(to));
+        }
+        
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+            }
+        }
     }
 
-    private static int[] buildLPS(String pattern) {
-        int[] lps = new int[pattern.length()];
-        int len = 0, i = 1;
+    /** SHA-256 of one chunk, held as four longs so index lookups stay cheap. */
+    public static final class ChunkFingerprint {
+        private final long h0, h1, h2, h3;
         
-        while (i < pattern.length()) {
-            if (pattern.charAt(i) == pattern.charAt(len)) {
-                len++;
-                lps[i] = len;
-                i++;
-            } else {
-                if (len != 0) {
-                    len = lps[len - 1];
-                } else {
-                    lps[i] = 0;
-                    i++;
-                }
-            }
+        ChunkFingerprint(byte[] sha256) {
+            ByteBuffer buffer = ByteBuffer.wrap(sha256);
+            this.h0 = buffer.getLong();
+            this.h1 = buffer.getLong();
+            this.h2 = buffer.getLong();
+            this.h3 = buffer.getLong();
         }
         
-        return lps;
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ChunkFingerprint)) return false;
+            ChunkFingerprint other = (ChunkFingerprint) o;
+            return h0 == other.h0 && h1 == other.h1 && h2 == other.h2 && h3 == other.h3;
+        }
+        
+        @Override
+        public int hashCode() {
+            return (int) (h0 ^ (h0 >>> 32)); // already uniformly distributed
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%016x%016x%016x%016x", h0, h1, h2, h3);
+        }
     }
 
     /**
-     * RABIN-KARP STRING MATCHING
-     * Time: O(n + m) average | Space: O(1)
+     * DEDUPLICATION INDEX
+     * Thread-safe set of chunk fingerprints with byte and chunk totals.
+     * duplicateRatio is the share of bytes already stored; dedupRatio is
+     * total bytes over unique bytes (2.0 = half the data was duplicate).
      */
-    public static int rabinKarp(String text, String pattern) {
-        final int BASE = 256;
-        final int PRIME = 101;
+    public static final class DedupIndex {
+        private final ConcurrentHashMap<ChunkFingerprint, Integer> chunks =
+                new ConcurrentHashMap<>();
+        private final LongAdder totalBytes = new LongAdder();
+        private final LongAdder uniqueBytes = new LongAdder();
+        private final LongAdder totalChunks = new LongAdder();
         
-        int patternHash = hashFunction(pattern, BASE, PRIME);
+        /** Records one chunk; returns true if its content was not stored before. */
+        public boolean add(ChunkFingerprint fingerprint, int length) {
+            totalBytes.add(length);
+            totalChunks.increment();
+            if (chunks.putIfAbsent(fingerprint, length) != null) return false;
+            uniqueBytes.add(length);
+            return true;
+        }
         
-        for (int i = 0; i <= text.length() - pattern.length(); i++) {
-            int windowHash = hashFunction(text.substring(i, i + pattern.length()), BASE, PRIME);
-            
-            if (patternHash == windowHash) {
-                if (text.substring(i, i + pattern.length()).equals(pattern)) {
-                    return i;
-                }
-            }
+        public boolean contains(ChunkFingerprint fingerprint) {
+            return chunks.containsKey(fingerprint);
         }
         
-        return -1;
-    }
-
-    private static int hashFunction(String str, int base, int prime) {
-        int hash = 0;
-        int pow = 1;
+        public long totalBytes() {
+            return totalBytes.sum();
+        }
+        
+        public long uniqueBytes() {
+            return uniqueBytes.sum();
+        }
+        
+        public long totalChunks() {
+            return totalChunks.sum();
+        }
+        
+        public long uniqueChunks() {
+            return chunks.size();
+        }
         
-        for (int i = str.length() - 1; i >= 0; i--) {
-            hash = (hash + str.charAt(i) * pow) % prime;
-            pow = (pow * base) % prime;
+        public double duplicateRatio() {
+            long total = totalBytes();
+            return total == 0 ? 0 : 1 - (double) uniqueBytes() / total;
         }
         
-        return hash;
+        public double dedupRatio() {
+            long unique = uniqueBytes();
+            return unique == 0 ? 1 : (double) totalBytes() / unique;
+        }
     }
 
     /**
@@ -630,10 +5194,16 @@ public class AlgorithmImplementations {
         }
         
         public int find(int x) {
-            if (parent[x] != x) {
-                parent[x] = find(parent[x]); // Path compression
+            int root = x;
+            while (parent[root] != root) {
+                root = parent[root];
             }
-            return parent[x];
+            while (parent[x] != root) { // Path compression, no recursion
+                int next = parent[x];
+                parent[x] = root;
+                x = next;
+            }
+            return root;
         }
         
         public boolean union(int x, int y) {
@@ -660,6 +5230,319 @@ public class AlgorithmImplementations {
         }
     }
 
+    /**
+     * CONCURRENT UNION-FIND (LOCK-FREE)
+     * Each element's rank and parent share one long (rank << 32 | parent),
+     * so linking a root is a single CAS that also proves it is still a root
+     * of the expected rank. Lower rank links under higher rank; equal ranks
+     * link the smaller index under the larger, so two threads racing to link
+     * the same pair of roots always agree on the direction and can never
+     * form a cycle. The new root's rank is then bumped with a best-effort
+     * CAS.
+     * find uses path splitting: every node on the path is CASed to its
+     * grandparent, and a lost race is simply ignored because any parent a
+     * thread installs is still an ancestor.
+     * union / find / connected are safe from any number of threads.
+     * Time: O(log n) per operation worst case | Space: O(n)
+     */
+    public static class ConcurrentUnionFind {
+        private static final long PARENT_MASK = 0xFFFFFFFFL;
+        private static final int UNION_MIN_CHUNK = 1 << 12;
+        
+        private final AtomicLongArray state;
+        
+        public ConcurrentUnionFind(int n) {
+            state = new AtomicLongArray(n);
+            for (int i = 0; i < n; i++) {
+                state.set(i, i);
+            }
+        }
+        
+        public int size() {
+            return state.length();
+        }
+        
+        public int find(int x) {
+            while (true) {
+                long s = state.get(x);
+                int p = (int) (s & PARENT_MASK);
+                if (p == x) return x;
+                long ps = state.get(p);
+                int gp = (int) (ps & PARENT_MASK);
+                if (gp != p) {
+                    state.compareAndSet(x, s, (s & ~PARENT_MASK) | gp); // path splitting
+                }
+                x = p;
+            }
+        }
+        
+        public boolean union(int x, int y) {
+            while (true) {
+                x = find(x);
+                y = find(y);
+                if (x == y) return false;
+                
+                long sx = state.get(x), sy = state.get(y);
+                if ((int) (sx & PARENT_MASK) != x || (int) (sy & PARENT_MASK) != y) {
+                    continue; // one of them stopped being a root
+                }
+                
+                int rx = (int) (sx >>> 32), ry = (int) (sy >>> 32);
+                if (rx > ry || (rx == ry && x > y)) {
+                    int t = x; x = y; y = t;
+                    long ts = sx; sx = sy; sy = ts;
+                    int tr = rx; rx = ry; ry = tr;
+                }
+                
+                // link x under y
+                if (state.compareAndSet(x, sx, (sx & ~PARENT_MASK) | y)) {
+                    if (rx == ry) {
+                        state.compareAndSet(y, sy, sy + (1L << 32));
+                    }
+                    return true;
+                }
+            }
+        }
+        
+        public boolean connected(int x, int y) {
+            while (true) {
+                x = find(x);
+                y = find(y);
+                if (x == y) return true;
+                if ((int) (state.get(x) & PARENT_MASK) == x) return false; // x still a root
+            }
+        }
+        
+        /**
+         * Unions sources[i] with targets[i] for every edge, spreading edge
+         * chunks across the common pool. Returns the number of successful
+         * unions, i.e. how much the component count dropped.
+         */
+        public long unionAll(int[] sources, int[] targets) {
+            int m = sources.length;
+            int chunks = chunkCount(m, UNION_MIN_CHUNK);
+            long[] merged = new long[chunks];
+            
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                long count = 0;
+                int lo = chunkStart(m, chunks, c), hi = chunkStart(m, chunks, c + 1);
+                for (int i = lo; i < hi; i++) {
+                    if (union(sources[i], targets[i])) count++;
+                }
+                merged[c] = count;
+            });
+            
+            return LongStream.of(merged).sum();
+        }
+        
+        /** Number of disjoint sets; only meaningful while no unions are running. */
+        public int componentCount() {
+            int count = 0;
+            for (int i = 0; i < state.length(); i++) {
+                if ((int) (state.get(i) & PARENT_MASK) == i) count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * GROWABLE UNION-FIND OVER SPARSE 64-BIT IDS
+     * Elements are arbitrary long IDs added on first use. An open-addressing
+     * table (long keys, linear probing) maps each ID to a dense slot; the
+     * forest lives in fixed-size chunks indexed by slot, so growing appends
+     * a chunk and resizing the table never touches the forest. find is
+     * iterative with path halving, union is by size, and every component is
+     * also a circular linked list (merged in O(1) on union) for iterating
+     * its members.
+     * Time: ~O(α(n)) amortized per operation | Space: O(n)
+     */
+    public static class SparseUnionFind {
+        private static final int CHUNK_SHIFT = 14;
+        private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+        private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+        
+        // ID -> slot + 1 (0 = empty)
+        private long[] tableKeys = new long[16];
+        private int[] tableSlots = new int[16];
+        
+        // slot -> data, in chunks of CHUNK_SIZE
+        private long[][] ids = new long[0][];
+        private int[][] parent = new int[0][];
+        private int[][] size = new int[0][];
+        private int[][] next = new int[0][]; // ring of the component's members
+        
+        private int count;
+        private int components;
+        
+        /** Number of elements added so far. */
+        public int size() {
+            return count;
+        }
+        
+        public int componentCount() {
+            return components;
+        }
+        
+        public boolean contains(long id) {
+            return slotOf(id) >= 0;
+        }
+        
+        /** Adds id as a singleton set if it is new. */
+        public void add(long id) {
+            slotOrAdd(id);
+        }
+        
+        /** Representative ID of the set containing id (adding id if new). */
+        public long find(long id) {
+            return get(ids, root(slotOrAdd(id)));
+        }
+        
+        public boolean union(long a, long b) {
+            int rootA = root(slotOrAdd(a));
+            int rootB = root(slotOrAdd(b));
+            if (rootA == rootB) return false;
+            
+            if (get(size, rootA) < get(size, rootB)) {
+                int t = rootA; rootA = rootB; rootB = t;
+            }
+            set(parent, rootB, rootA);
+            set(size, rootA, get(size, rootA) + get(size, rootB));
+            
+            // splice the two member rings
+            int afterA = get(next, rootA);
+            set(next, rootA, get(next, rootB));
+            set(next, rootB, afterA);
+            
+            components--;
+            return true;
+        }
+        
+        public boolean connected(long a, long b) {
+            int slotA = slotOf(a), slotB = slotOf(b);
+            if (slotA < 0 || slotB < 0) return a == b;
+            return root(slotA) == root(slotB);
+        }
+        
+        /** Size of the set containing id; 0 if id was never added. */
+        public int componentSize(long id) {
+            int slot = slotOf(id);
+            return slot < 0 ? 0 : get(size, root(slot));
+        }
+        
+        /** Members of the set containing id; empty if id was never added. */
+        public PrimitiveIterator.OfLong members(long id) {
+            int start = slotOf(id);
+            return new PrimitiveIterator.OfLong() {
+                private int current = start;
+                
+                @Override
+                public boolean hasNext() {
+                    return current >= 0;
+                }
+                
+                @Override
+                public long nextLong() {
+                    if (current < 0) throw new NoSuchElementException();
+                    long value = get(ids, current);
+                    current = get(next, current);
+                    if (current == start) current = -1;
+                    return value;
+                }
+            };
+        }
+        
+        private int root(int slot) {
+            while (true) {
+                int p = get(parent, slot);
+                if (p == slot) return slot;
+                int gp = get(parent, p);
+                set(parent, slot, gp); // path halving
+                slot = gp;
+            }
+        }
+        
+        private int slotOf(long id) {
+            int mask = tableKeys.length - 1;
+            for (int i = mix(id) & mask; ; i = (i + 1) & mask) {
+                int s = tableSlots[i];
+                if (s == 0) return -1;
+                if (tableKeys[i] == id) return s - 1;
+            }
+        }
+        
+        private int slotOrAdd(long id) {
+            int mask = tableKeys.length - 1;
+            int i = mix(id) & mask;
+            for (; tableSlots[i] != 0; i = (i + 1) & mask) {
+                if (tableKeys[i] == id) return tableSlots[i] - 1;
+            }
+            
+            int slot = count++;
+            if ((slot & CHUNK_MASK) == 0) addChunk();
+            set(ids, slot, id);
+            set(parent, slot, slot);
+            set(size, slot, 1);
+            set(next, slot, slot);
+            components++;
+            
+            tableKeys[i] = id;
+            tableSlots[i] = slot + 1;
+            if (2 * count > tableKeys.length) growTable();
+            return slot;
+        }
+        
+        private void addChunk() {
+            int chunks = parent.length;
+            ids = Arrays.copyOf(ids, chunks + 1);
+            parent = Arrays.copyOf(parent, chunks + 1);
+            size = Arrays.copyOf(size, chunks + 1);
+            next = Arrays.copyOf(next, chunks + 1);
+            ids[chunks] = new long[CHUNK_SIZE];
+            parent[chunks] = new int[CHUNK_SIZE];
+            size[chunks] = new int[CHUNK_SIZE];
+            next[chunks] = new int[CHUNK_SIZE];
+        }
+        
+        /** Doubles the ID table; slots, and so the forest, stay where they are. */
+        private void growTable() {
+            long[] oldKeys = tableKeys;
+            int[] oldSlots = tableSlots;
+            tableKeys = new long[oldKeys.length * 2];
+            tableSlots = new int[oldSlots.length * 2];
+            int mask = tableKeys.length - 1;
+            
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldSlots[j] == 0) continue;
+                int i = mix(oldKeys[j]) & mask;
+                while (tableSlots[i] != 0) i = (i + 1) & mask;
+                tableKeys[i] = oldKeys[j];
+                tableSlots[i] = oldSlots[j];
+            }
+        }
+        
+        private static int mix(long key) {
+            key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+            key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return (int) (key ^ (key >>> 33));
+        }
+        
+        private static int get(int[][] chunks, int slot) {
+            return chunks[slot >>> CHUNK_SHIFT][slot & CHUNK_MASK];
+        }
+        
+        private static long get(long[][] chunks, int slot) {
+            return chunks[slot >>> CHUNK_SHIFT][slot & CHUNK_MASK];
+        }
+        
+        private static void set(int[][] chunks, int slot, int value) {
+            chunks[slot >>> CHUNK_SHIFT][slot & CHUNK_MASK] = value;
+        }
+        
+        private static void set(long[][] chunks, int slot, long value) {
+            chunks[slot >>> CHUNK_SHIFT][slot & CHUNK_MASK] = value;
+        }
+    }
+
     /**
      * TRIE (PREFIX TREE)
      */
@@ -699,6 +5582,203 @@ public class AlgorithmImplementations {
         }
     }
 
+    /**
+     * INDEXED D-ARY MIN-HEAP (4-ARY BY DEFAULT)
+     * Keys are int IDs in [0, capacity) with long priorities. pos[] maps an ID
+     * to its heap slot, so contains is O(1) and decreaseKey sifts in place
+     * instead of pushing a duplicate entry. clear() only resets the slots in
+     * use, so one heap can be reused across runs without reallocating.
+     * Time: insert / decreaseKey O(log_d n), poll O(d log_d n) | Space: O(capacity)
+     */
+    public static class IndexedMinHeap {
+        private final int arity;
+        private int[] heap;      // heap slot -> id
+        private int[] pos;       // id -> heap slot, -1 when absent
+        private long[] priority; // id -> priority
+        private int size;
+        
+        public IndexedMinHeap(int capacity) {
+            this(capacity, 4);
+        }
+        
+        public IndexedMinHeap(int capacity, int arity) {
+            if (arity < 2) throw new IllegalArgumentException("arity must be >= 2: " + arity);
+            this.arity = arity;
+            this.heap = new int[capacity];
+            this.pos = new int[capacity];
+            this.priority = new long[capacity];
+            Arrays.fill(pos, -1);
+        }
+        
+        public int size() {
+            return size;
+        }
+        
+        public boolean isEmpty() {
+            return size == 0;
+        }
+        
+        public int capacity() {
+            return pos.length;
+        }
+        
+        public boolean contains(int id) {
+            return pos[id] >= 0;
+        }
+        
+        public long priority(int id) {
+            return priority[id];
+        }
+        
+        /** Grows the ID range; existing contents are kept. */
+        public void ensureCapacity(int capacity) {
+            int old = pos.length;
+            if (capacity <= old) return;
+            heap = Arrays.copyOf(heap, capacity);
+            pos = Arrays.copyOf(pos, capacity);
+            priority = Arrays.copyOf(priority, capacity);
+            Arrays.fill(pos, old, capacity, -1);
+        }
+        
+        public void insert(int id, long p) {
+            if (contains(id)) throw new IllegalArgumentException("already in heap: " + id);
+            priority[id] = p;
+            heap[size] = id;
+            pos[id] = size;
+            siftUp(size++);
+        }
+        
+        /** Lowers the priority of id; returns false if p is not lower. */
+        public boolean decreaseKey(int id, long p) {
+            if (!contains(id)) throw new NoSuchElementException("not in heap: " + id);
+            if (p >= priority[id]) return false;
+            priority[id] = p;
+            siftUp(pos[id]);
+            return true;
+        }
+        
+        /** Inserts id, or lowers its priority if it is already queued. */
+        public void insertOrDecrease(int id, long p) {
+            if (contains(id)) {
+                decreaseKey(id, p);
+            } else {
+                insert(id, p);
+            }
+        }
+        
+        public int peek() {
+            if (size == 0) throw new NoSuchElementException();
+            return heap[0];
+        }
+        
+        public long peekPriority() {
+            return priority[peek()];
+        }
+        
+        public int poll() {
+            int top = peek();
+            int last = heap[--size];
+            pos[top] = -1;
+            if (size > 0) {
+                heap[0] = last;
+                pos[last] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+        
+        public void clear() {
+            for (int i = 0; i < size; i++) {
+                pos[heap[i]] = -1;
+            }
+            size = 0;
+        }
+        
+        private void siftUp(int slot) {
+            int id = heap[slot];
+            long p = priority[id];
+            while (slot > 0) {
+                int parent = (slot - 1) / arity;
+                int parentId = heap[parent];
+                if (priority[parentId] <= p) break;
+                heap[slot] = parentId;
+                pos[parentId] = slot;
+                slot = parent;
+            }
+            heap[slot] = id;
+            pos[id] = slot;
+        }
+        
+        private void siftDown(int slot) {
+            int id = heap[slot];
+            long p = priority[id];
+            while (true) {
+                int first = arity * slot + 1;
+                if (first >= size) break;
+                int best = first;
+                int end = Math.min(first + arity, size);
+                for (int c = first + 1; c < end; c++) {
+                    if (priority[heap[c]] < priority[heap[best]]) best = c;
+                }
+                if (priority[heap[best]] >= p) break;
+                heap[slot] = heap[best];
+                pos[heap[slot]] = slot;
+                slot = best;
+            }
+            heap[slot] = id;
+            pos[id] = slot;
+        }
+    }
+
+    /**
+     * GROWABLE INT LIST
+     * Minimal ArrayList<Integer> replacement for internal buffers: fields are
+     * read directly by the algorithms above, nothing is boxed.
+     */
+    static final class IntList {
+        int[] data;
+        int size;
+        
+        IntList() {
+            this(16);
+        }
+        
+        IntList(int capacity) {
+            data = new int[Math.max(capacity, 1)];
+        }
+        
+        static IntList of(int value) {
+            IntList list = new IntList(1);
+            list.add(value);
+            return list;
+        }
+        
+        void add(int value) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+        
+        void addAll(IntList other) {
+            if (size + other.size > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + other.size, size * 2));
+            }
+            System.arraycopy(other.data, 0, data, size, other.size);
+            size += other.size;
+        }
+        
+        int pop() {
+            return data[--size];
+        }
+        
+        boolean isEmpty() {
+            return size == 0;
+        }
+        
+        void clear() {
+            size = 0;
+        }
+    }
+
     /**
      * SEGMENT TREE FOR RANGE SUM QUERIES
      */
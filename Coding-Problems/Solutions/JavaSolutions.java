@@ -1012,30 +1012,83 @@ public class InterviewSolutions {
     }
 
     /**
-     * 66. QUICK SORT
-     * Time: O(n log n) average, O(n²) worst | Space: O(log n)
+     * 66. QUICK SORT (INTROSORT)
+     * Median-of-three pivot, three-way partition for duplicates, recursion
+     * only into the smaller side, heap sort once the depth budget runs out.
+     * Sorts arr[low..high] inclusive.
+     * Time: O(n log n) worst | Space: O(log n)
      */
     public static void quickSort(int[] arr, int low, int high) {
-        if (low < high) {
-            int pi = partition(arr, low, high);
-            quickSort(arr, low, pi - 1);
-            quickSort(arr, pi + 1, high);
-        }
+        if (low >= high) return;
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(high - low + 1));
+        introSort(arr, low, high, depthLimit);
     }
 
-    private static int partition(int[] arr, int low, int high) {
-        int pivot = arr[high];
-        int i = low - 1;
-        
-        for (int j = low; j < high; j++) {
-            if (arr[j] < pivot) {
-                i++;
-                swap(arr, i, j);
+    private static void introSort(int[] arr, int low, int high, int depthLimit) {
+        while (high - low >= 16) {
+            if (depthLimit-- == 0) {
+                heapSort(arr, low, high);
+                return;
+            }
+            
+            int mid = low + (high - low) / 2;
+            int pivot = medianOfThree(arr[low], arr[mid], arr[high]);
+            
+            // [low, lt) < pivot, [lt, gt] == pivot, (gt, high] > pivot
+            int lt = low, i = low, gt = high;
+            while (i <= gt) {
+                if (arr[i] < pivot) {
+                    swap(arr, lt++, i++);
+                } else if (arr[i] > pivot) {
+                    swap(arr, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            
+            if (lt - low < high - gt) {
+                introSort(arr, low, lt - 1, depthLimit);
+                low = gt + 1;
+            } else {
+                introSort(arr, gt + 1, high, depthLimit);
+                high = lt - 1;
             }
         }
         
-        swap(arr, i + 1, high);
-        return i + 1;
+        for (int i = low + 1; i <= high; i++) {
+            int key = arr[i];
+            int j = i - 1;
+            while (j >= low && arr[j] > key) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = key;
+        }
+    }
+
+    private static int medianOfThree(int a, int b, int c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private static void heapSort(int[] arr, int low, int high) {
+        int n = high - low + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(arr, low, n, i);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(arr, low, low + end);
+            siftDown(arr, low, end, 0);
+        }
+    }
+
+    private static void siftDown(int[] arr, int low, int n, int i) {
+        while (2 * i + 1 < n) {
+            int child = 2 * i + 1;
+            if (child + 1 < n && arr[low + child + 1] > arr[low + child]) child++;
+            if (arr[low + i] >= arr[low + child]) return;
+            swap(arr, low + i, low + child);
+            i = child;
+        }
     }
 
     /**